@@ -0,0 +1,158 @@
+package com.polls.backend.benchmark;
+
+import com.polls.backend.entity.DeviceFingerprint;
+import com.polls.backend.entity.Poll;
+import com.polls.backend.entity.PollOption;
+import com.polls.backend.entity.Vote;
+import com.polls.backend.repository.PollOptionCounterRepository;
+import com.polls.backend.repository.PollOptionRepository;
+import com.polls.backend.repository.PollRepository;
+import com.polls.backend.repository.VoteRepository;
+import com.polls.backend.repository.projection.OptionTallyRow;
+import com.polls.backend.service.FrozenResultsService;
+import com.polls.backend.service.PollService;
+import com.polls.backend.service.VoteCounterService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Синтетичні дані та заглушки репозиторіїв для бенчмарків
+ * Без Spring-контексту та БД: вимірюється лише код сервісів
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Заглушка інтерфейсу: відповіді за ім'ям методу, решта - UnsupportedOperationException
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+            }
+        });
+    }
+
+    static Poll poll(int optionCount) {
+        Poll poll = new Poll();
+        poll.setId(UUID.randomUUID());
+        poll.setTitle("Бенчмарк \"гарячого\" шляху");
+        poll.setQuestion("Яке питання?");
+        poll.setType("SINGLE");
+        poll.setStatus("ACTIVE");
+        poll.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        List<PollOption> options = new ArrayList<>(optionCount);
+        for (int i = 0; i < optionCount; i++) {
+            PollOption option = new PollOption();
+            option.setId(UUID.randomUUID());
+            option.setPoll(poll);
+            option.setText("Варіант " + (i + 1));
+            option.setOrderNum(i);
+            options.add(option);
+        }
+        poll.setOptions(options);
+        return poll;
+    }
+
+    /**
+     * Голоси з нерівномірним розподілом: перші варіанти популярніші
+     */
+    static List<Vote> votes(Poll poll, int count, long seed) {
+        Random random = new Random(seed);
+        List<PollOption> options = poll.getOptions();
+        List<Vote> votes = new ArrayList<>(count);
+        LocalDateTime start = poll.getCreatedAt();
+
+        for (int i = 0; i < count; i++) {
+            double r = random.nextDouble();
+            int index = (int) (options.size() * r * r);
+
+            DeviceFingerprint fingerprint = new DeviceFingerprint();
+            fingerprint.setId(UUID.randomUUID());
+
+            Vote vote = new Vote();
+            vote.setId(UUID.randomUUID());
+            vote.setPoll(poll);
+            vote.setOption(options.get(index));
+            vote.setFingerprint(fingerprint);
+            vote.setVotedAt(start.plusSeconds(i));
+            votes.add(vote);
+        }
+        return votes;
+    }
+
+    /**
+     * Рядок findTalliesByPollId
+     */
+    record Tally(UUID optionId, String optionText, Integer orderNum, long votes, long iotVotes) implements OptionTallyRow {
+        @Override public UUID getOptionId() { return optionId; }
+        @Override public String getOptionText() { return optionText; }
+        @Override public Integer getOrderNum() { return orderNum; }
+        @Override public long getVotes() { return votes; }
+        @Override public long getIotVotes() { return iotVotes; }
+    }
+
+    /**
+     * Те, що повертає GROUP BY запит findTalliesByPollId для цих голосів
+     */
+    static List<OptionTallyRow> tallies(Poll poll, List<Vote> votes) {
+        Map<UUID, Long> counts = new HashMap<>();
+        for (Vote vote : votes) {
+            if (vote.getOption() != null) {
+                counts.merge(vote.getOption().getId(), 1L, Long::sum);
+            }
+        }
+        List<OptionTallyRow> rows = new ArrayList<>();
+        for (PollOption option : poll.getOptions()) {
+            rows.add(new Tally(option.getId(), option.getText(), option.getOrderNum(),
+                    counts.getOrDefault(option.getId(), 0L), 0L));
+        }
+        return rows;
+    }
+
+    /**
+     * PollService поверх заглушок: голосування ACTIVE, тому завжди повний перерахунок
+     * Агрегація виконується в БД, тому заглушка віддає готові рядки: вимірюється код сервісу
+     */
+    static PollService pollService(Poll poll, List<Vote> votes) {
+        List<OptionTallyRow> tallies = tallies(poll, votes);
+        long total = votes.size();
+
+        PollRepository pollRepository = stub(PollRepository.class, Map.of(
+                "findById", args -> Optional.of(poll)));
+        PollOptionRepository pollOptionRepository = stub(PollOptionRepository.class, Map.of(
+                "findTalliesByPollId", args -> tallies));
+        VoteRepository voteRepository = stub(VoteRepository.class, Map.of(
+                "findByPoll", args -> votes));
+        VoteCounterService voteCounterService = new VoteCounterService();
+        ReflectionTestUtils.setField(voteCounterService, "counterRepository", stub(PollOptionCounterRepository.class, Map.of(
+                "sumByPollId", args -> total)));
+
+        PollService pollService = new PollService();
+        ReflectionTestUtils.setField(pollService, "pollRepository", pollRepository);
+        ReflectionTestUtils.setField(pollService, "pollOptionRepository", pollOptionRepository);
+        ReflectionTestUtils.setField(pollService, "voteRepository", voteRepository);
+        ReflectionTestUtils.setField(pollService, "voteCounterService", voteCounterService);
+        ReflectionTestUtils.setField(pollService, "frozenResultsService", new FrozenResultsService());
+        return pollService;
+    }
+}
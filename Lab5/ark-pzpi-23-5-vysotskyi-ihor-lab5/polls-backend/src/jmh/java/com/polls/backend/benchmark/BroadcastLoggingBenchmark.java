@@ -0,0 +1,194 @@
+package com.polls.backend.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.polls.backend.entity.Poll;
+import com.polls.backend.handler.PollWebSocketHandler;
+import com.polls.backend.logging.SampledTraceFilter;
+import com.polls.backend.logging.VoteCorrelation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PollWebSocketHandler.broadcast з 8 потоків: логування через AsyncAppender проти
+ * колишніх System.out.println на кожну трансляцію
+ *
+ * System.out замінюється потоком-лічильником: після прогону broadcast перевіряється,
+ * що потоки бенчмарку не записали в stdout жодного байта (пише лише фоновий потік
+ * AsyncAppender). legacyConsoleBroadcast відтворює старі println для порівняння.
+ *
+ * logging: INFO - робочий рівень; SAMPLED - INFO + SampledTraceFilter (1 з 100 голосів
+ * з повним debug); DEBUG - весь debug через чергу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class BroadcastLoggingBenchmark {
+
+    @Param({"INFO", "SAMPLED", "DEBUG"})
+    private String logging;
+
+    private static final int SUBSCRIBERS = 50;
+
+    private PollWebSocketHandler handler;
+    private Map<String, Set<WebSocketSession>> subscriptions;
+    private String topic;
+    private Map<String, Object> stats;
+
+    private PrintStream originalOut;
+    private CountingStream stdout;
+
+    /**
+     * Лічильник байтів stdout окремо для потоків бенчмарку та решти (фоновий appender)
+     */
+    static final class CountingStream extends OutputStream {
+        final LongAdder workerBytes = new LongAdder();
+        final LongAdder otherBytes = new LongAdder();
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(int len) {
+            (Thread.currentThread().getName().contains("jmh-worker") ? workerBytes : otherBytes).add(len);
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        originalOut = System.out;
+        stdout = new CountingStream();
+        // Як System.out: синхронізований PrintStream з autoflush
+        System.setOut(new PrintStream(stdout, true));
+        configureLogging();
+
+        Poll poll = BenchmarkFixtures.poll(6);
+        stats = BenchmarkFixtures.pollService(poll, BenchmarkFixtures.votes(poll, 1000, 42))
+                .getPollStatistics(poll.getId());
+        topic = "polls/" + poll.getId() + "/results";
+
+        handler = new PollWebSocketHandler();
+        ReflectionTestUtils.setField(handler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(handler, "registerMetrics");
+
+        subscriptions = (Map<String, Set<WebSocketSession>>) ReflectionTestUtils.getField(handler, "pollSubscriptions");
+        Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            String id = "session-" + i;
+            sessions.add(BenchmarkFixtures.stub(WebSocketSession.class, Map.of(
+                    "isOpen", args -> true,
+                    "getId", args -> id,
+                    "getAcceptedProtocol", args -> null,
+                    "getExtensions", args -> List.of(),
+                    "sendMessage", args -> null)));
+        }
+        subscriptions.put(topic, sessions);
+        // Інші теми, як на живому сервері: колишній println виводив увесь keySet
+        for (int i = 0; i < 200; i++) {
+            subscriptions.put("polls/" + UUID.randomUUID() + "/results", ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Як logback-spring.xml: AsyncAppender (neverBlock) над appender'ом у System.out
+     */
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] [%X{voteId:-}] %logger{39} : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(System.out);
+        console.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(console);
+        async.start();
+
+        if ("SAMPLED".equals(logging)) {
+            SampledTraceFilter filter = new SampledTraceFilter();
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel("DEBUG".equals(logging) ? Level.DEBUG : Level.INFO);
+        root.addAppender(async);
+    }
+
+    @TearDown
+    public void tearDown(BenchmarkParams params) {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        System.setOut(originalOut);
+
+        long workerBytes = stdout.workerBytes.sum();
+        System.out.printf("stdout: %d bytes from benchmark threads, %d bytes from appender thread%n",
+                workerBytes, stdout.otherBytes.sum());
+        if (params.getBenchmark().endsWith(".broadcast") && workerBytes > 0) {
+            throw new IllegalStateException("Hot path wrote " + workerBytes + " bytes to stdout");
+        }
+    }
+
+    @Benchmark
+    public void broadcast() {
+        VoteCorrelation.Scope correlation = VoteCorrelation.open();
+        try {
+            handler.broadcast(topic, stats);
+        } finally {
+            correlation.close();
+        }
+    }
+
+    /**
+     * Колишній варіант: println на кожну трансляцію та кожну сесію
+     */
+    @Benchmark
+    public void legacyConsoleBroadcast() {
+        System.out.println("🔥 broadcast() called for topic: " + topic);
+        System.out.println("🔥 All subscriptions keys: " + subscriptions.keySet());
+        System.out.println("🔥 Stats obtained: " + stats);
+        for (WebSocketSession session : subscriptions.get(topic)) {
+            System.out.println("📤 Відправлено " + topic + " для session: " + session.getId());
+        }
+        handler.broadcast(topic, stats);
+    }
+}
@@ -0,0 +1,147 @@
+package com.polls.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polls.backend.entity.Poll;
+import com.polls.backend.handler.ResultsFrameCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Кадр poll_results_update: JSON (як у WebSocketBroadcaster) проти бінарного
+ * ResultsFrameCodec (підпротокол polls.bin), обидва - з permessage-deflate і без
+ *
+ * Послідовність із FRAMES кадрів одного голосування з голосами, що ростуть, як при
+ * живому голосуванні. Deflate - як у Tomcat PerMessageDeflate: raw deflate одного
+ * потоку на сесію (context takeover), SYNC_FLUSH, без хвоста 00 00 FF FF.
+ * У stdout - середній розмір кадру для кожного кодування (байт на кадр).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastSerializationBenchmark {
+
+    private static final int FRAMES = 64;
+
+    @Param({"4", "12"})
+    private int options;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<Map<String, Object>> frames = new ArrayList<>();
+    private UUID pollId;
+    private int cursor;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        Poll poll = BenchmarkFixtures.poll(options);
+        pollId = poll.getId();
+        String topic = "polls/" + pollId + "/results";
+
+        for (int i = 0; i < FRAMES; i++) {
+            Map<String, Object> stats = BenchmarkFixtures
+                    .pollService(poll, BenchmarkFixtures.votes(poll, 1000 + i, 42))
+                    .getPollStatistics(pollId);
+            Map<String, Object> frame = new HashMap<>();
+            frame.put("type", "poll_results_update");
+            frame.put("topic", topic);
+            frame.put("data", stats);
+            frame.put("timestamp", System.currentTimeMillis() + i * 50L);
+            frames.add(frame);
+        }
+        printSizes();
+    }
+
+    private Map<String, Object> next() {
+        Map<String, Object> frame = frames.get(cursor);
+        cursor = (cursor + 1) % FRAMES;
+        return frame;
+    }
+
+    @Benchmark
+    public String writeValueAsString() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(next());
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(next());
+    }
+
+    @Benchmark
+    public int jsonDeflate() throws JsonProcessingException {
+        return deflate(deflater, objectMapper.writeValueAsBytes(next()));
+    }
+
+    @Benchmark
+    public byte[] binary() {
+        return encode(next());
+    }
+
+    @Benchmark
+    public int binaryDeflate() {
+        return deflate(deflater, encode(next()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] encode(Map<String, Object> frame) {
+        return ResultsFrameCodec.encode(pollId, (Long) frame.get("timestamp"), (Map<String, Object>) frame.get("data"));
+    }
+
+    /**
+     * Стиснутий розмір одного повідомлення в потоці сесії
+     */
+    private int deflate(Deflater stream, byte[] message) {
+        stream.setInput(message);
+        int total = 0;
+        int written;
+        do {
+            written = stream.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+            total += written;
+        } while (written == deflateBuffer.length);
+        // RFC 7692: порожній блок 00 00 FF FF в кінці повідомлення не передається
+        return total - 4;
+    }
+
+    private void printSizes() throws JsonProcessingException {
+        long json = 0;
+        long binary = 0;
+        long jsonDeflated = 0;
+        long binaryDeflated = 0;
+        long jsonDeflatedFresh = 0;
+        Deflater jsonStream = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        Deflater binaryStream = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        for (Map<String, Object> frame : frames) {
+            byte[] jsonFrame = objectMapper.writeValueAsBytes(frame);
+            byte[] binaryFrame = encode(frame);
+            json += jsonFrame.length;
+            binary += binaryFrame.length;
+            jsonDeflated += deflate(jsonStream, jsonFrame);
+            binaryDeflated += deflate(binaryStream, binaryFrame);
+            // server_no_context_takeover: кожне повідомлення стискається окремо
+            Deflater fresh = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            jsonDeflatedFresh += deflate(fresh, jsonFrame);
+            fresh.end();
+        }
+        jsonStream.end();
+        binaryStream.end();
+
+        System.out.printf("%n%d options, bytes/frame: json %d, json+deflate %d (no context takeover %d), "
+                        + "binary %d, binary+deflate %d%n",
+                options, json / FRAMES, jsonDeflated / FRAMES, jsonDeflatedFresh / FRAMES,
+                binary / FRAMES, binaryDeflated / FRAMES);
+    }
+}
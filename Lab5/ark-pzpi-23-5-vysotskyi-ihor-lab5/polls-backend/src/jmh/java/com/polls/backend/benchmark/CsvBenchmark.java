@@ -0,0 +1,100 @@
+package com.polls.backend.benchmark;
+
+import com.polls.backend.entity.Poll;
+import com.polls.backend.repository.PollRepository;
+import com.polls.backend.repository.projection.PollExportRow;
+import com.polls.backend.service.CsvRecordReader;
+import com.polls.backend.service.ExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV: експорт одного голосування (екранування), потоковий експорт усіх голосувань
+ * та розбір файлу імпорту CsvRecordReader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    private ExportService exportService;
+    private UUID pollId;
+    private List<PollExportRow> exportRows;
+    private String importCsv;
+
+    @Setup
+    public void setup() {
+        Poll poll = BenchmarkFixtures.poll(8);
+        pollId = poll.getId();
+
+        exportRows = new ArrayList<>(rows);
+        StringBuilder csv = new StringBuilder("title,question,type,status,multipleAnswers,showResults,options\n");
+        for (int i = 0; i < rows; i++) {
+            // Кожен третій рядок з лапками / комами / переносом, щоб працювало екранування
+            String title = i % 3 == 0 ? "Голосування \"" + i + "\", спецвипуск" : "Голосування " + i;
+            exportRows.add(new ExportRow(UUID.randomUUID(), title, "SINGLE_CHOICE", "ACTIVE",
+                    poll.getCreatedAt().plusMinutes(i), i * 7L));
+
+            csv.append('"').append(title.replace("\"", "\"\"")).append("\",")
+                    .append(i % 3 == 0 ? "\"Питання\nз переносом\"" : "Питання").append(',')
+                    .append("SINGLE_CHOICE,ACTIVE,false,true,")
+                    .append("Так|Ні|Утримуюсь\n");
+        }
+        importCsv = csv.toString();
+
+        PollRepository pollRepository = BenchmarkFixtures.stub(PollRepository.class, Map.of(
+                "findById", args -> Optional.of(poll),
+                "streamAllWithVoteCounts", args -> exportRows.stream()));
+
+        exportService = new ExportService();
+        ReflectionTestUtils.setField(exportService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(exportService, "pollRepository", pollRepository);
+        ReflectionTestUtils.setField(exportService, "pollService",
+                BenchmarkFixtures.pollService(poll, BenchmarkFixtures.votes(poll, rows, 42)));
+    }
+
+    @Benchmark
+    public String exportPollToCsv() {
+        return exportService.exportPollToCsv(pollId);
+    }
+
+    @Benchmark
+    public long writeAllPollsCsv() throws IOException {
+        return exportService.writeAllPollsCsv(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void parseImportCsv(Blackhole bh) throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(importCsv))) {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                bh.consume(record);
+            }
+        }
+    }
+
+    private record ExportRow(UUID id, String title, String type, String status,
+                             LocalDateTime createdAt, long voteCount) implements PollExportRow {
+        @Override public UUID getId() { return id; }
+        @Override public String getTitle() { return title; }
+        @Override public String getType() { return type; }
+        @Override public String getStatus() { return status; }
+        @Override public LocalDateTime getCreatedAt() { return createdAt; }
+        @Override public long getVoteCount() { return voteCount; }
+    }
+}
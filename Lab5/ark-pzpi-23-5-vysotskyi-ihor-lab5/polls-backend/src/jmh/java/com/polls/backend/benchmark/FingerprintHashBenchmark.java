@@ -0,0 +1,29 @@
+package com.polls.backend.benchmark;
+
+import com.polls.backend.service.DeviceFingerprintService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeviceFingerprintService.generateFingerprintHash - SHA-256 + hex на кожне підключення пристрою
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FingerprintHashBenchmark {
+
+    private final DeviceFingerprintService fingerprintService = new DeviceFingerprintService();
+
+    private final String ip = "192.168.10.42";
+    private final String userAgent =
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Mobile Safari/537.36";
+
+    @Benchmark
+    public String generateFingerprintHash() {
+        return fingerprintService.generateFingerprintHash(ip, userAgent);
+    }
+}
@@ -0,0 +1,59 @@
+package com.polls.backend.benchmark;
+
+import com.polls.backend.service.IotVoteService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Математичний аналіз IoT-голосу: впевненість, аномальність, ентропія
+ * Набір часів голосування від 0.5 до 60 с, щоб не вимірювати одну гілку
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IotScoringBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private final IotVoteService iotVoteService = new IotVoteService();
+    private long[] votingTimes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        votingTimes = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            votingTimes[i] = 500 + random.nextInt(59_500);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void calculateConfidence(Blackhole bh) {
+        for (long t : votingTimes) {
+            bh.consume(iotVoteService.calculateConfidence(t));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void calculateAnomalyScore(Blackhole bh) {
+        for (long t : votingTimes) {
+            bh.consume(iotVoteService.calculateAnomalyScore(t));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void calculateEntropy(Blackhole bh) {
+        for (long t : votingTimes) {
+            bh.consume(iotVoteService.calculateEntropy(t));
+        }
+    }
+}
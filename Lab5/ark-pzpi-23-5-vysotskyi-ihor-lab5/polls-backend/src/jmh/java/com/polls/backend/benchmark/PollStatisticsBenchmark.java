@@ -0,0 +1,51 @@
+package com.polls.backend.benchmark;
+
+import com.polls.backend.entity.Poll;
+import com.polls.backend.service.PollService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PollService.getPollStatistics / calculateDistributionMetrics
+ * Викликаються на кожен голос (трансляція WebSocket) та на кожен запит дашборда
+ *
+ * Підрахунок - у БД (findTalliesByPollId по лічильниках), сервіс отримує рядок на варіант,
+ * тому масштаб - кількість варіантів; кількість голосів на час не впливає і не параметр.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PollStatisticsBenchmark {
+
+    // Голоси лише задають розподіл у рядках підрахунку
+    private static final int VOTES = 1000;
+
+    @Param({"4", "12", "50"})
+    private int options;
+
+    private PollService pollService;
+    private UUID pollId;
+
+    @Setup
+    public void setup() {
+        Poll poll = BenchmarkFixtures.poll(options);
+        pollId = poll.getId();
+        pollService = BenchmarkFixtures.pollService(poll, BenchmarkFixtures.votes(poll, VOTES, 42));
+    }
+
+    @Benchmark
+    public Map<String, Object> getPollStatistics() {
+        return pollService.getPollStatistics(pollId);
+    }
+
+    @Benchmark
+    public Map<String, Object> calculateDistributionMetrics() {
+        return pollService.calculateDistributionMetrics(pollId);
+    }
+}
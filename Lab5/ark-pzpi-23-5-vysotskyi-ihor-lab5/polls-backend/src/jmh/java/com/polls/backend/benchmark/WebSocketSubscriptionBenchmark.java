@@ -0,0 +1,142 @@
+package com.polls.backend.benchmark;
+
+import com.polls.backend.entity.Poll;
+import com.polls.backend.handler.PollWebSocketHandler;
+import com.polls.backend.service.PollTallyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Підписки PollWebSocketHandler при 100k сесіях: пам'ять та ціна відключення
+ *
+ * Перед кожною ітерацією 100k сесій підключаються і підписуються на polls/new,
+ * polls/{id}/results і polls/{id}/status (голосувань - polls); у stdout - приріст
+ * heap на сесію. Ітерація відключає всі 100k сесій: disconnect - через зворотний
+ * індекс, legacyDisconnect - колишній обхід усіх тем. Після ітерації друкується,
+ * скільки тем залишилось у pollSubscriptions (колишній варіант їх не видаляв).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = WebSocketSubscriptionBenchmark.SESSIONS)
+@Measurement(iterations = 5, batchSize = WebSocketSubscriptionBenchmark.SESSIONS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WebSocketSubscriptionBenchmark {
+
+    static final int SESSIONS = 100_000;
+
+    @Param({"1000"})
+    private int polls;
+
+    private PollWebSocketHandler handler;
+    private Map<String, Set<WebSocketSession>> subscriptions;
+    private Map<String, WebSocketSession> outboundSessions;
+    private Set<WebSocketSession> openSessions;
+    private List<WebSocketSession> sessions;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void quietLogging() {
+        // info-лог на кожне підключення / відключення вимірював би консоль, а не індекс
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(PollWebSocketHandler.class)).setLevel(ch.qos.logback.classic.Level.WARN);
+    }
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void connectAll() throws Exception {
+        Poll poll = BenchmarkFixtures.poll(4);
+
+        handler = new PollWebSocketHandler();
+        ReflectionTestUtils.setField(handler, "meterRegistry", new SimpleMeterRegistry());
+        // Заглушка findById відповідає тим самим Poll на будь-який id: усі теми валідні
+        ReflectionTestUtils.setField(handler, "pollService", BenchmarkFixtures.pollService(poll, List.of()));
+        ReflectionTestUtils.setField(handler, "pollTallyCache", new PollTallyCache());
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMs", 5000);
+        ReflectionTestUtils.setField(handler, "sendBufferLimitBytes", 512 * 1024);
+        ReflectionTestUtils.setField(handler, "maxSubscriptionsPerSession", 20);
+        ReflectionTestUtils.invokeMethod(handler, "registerMetrics");
+
+        subscriptions = (Map<String, Set<WebSocketSession>>) ReflectionTestUtils.getField(handler, "pollSubscriptions");
+        outboundSessions = (Map<String, WebSocketSession>) ReflectionTestUtils.getField(handler, "outboundSessions");
+        openSessions = (Set<WebSocketSession>) ReflectionTestUtils.getField(handler, "openSessions");
+
+        List<UUID> pollIds = new ArrayList<>(polls);
+        for (int i = 0; i < polls; i++) {
+            pollIds.add(UUID.randomUUID());
+        }
+
+        long before = usedHeap();
+        sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            String id = "session-" + i;
+            WebSocketSession session = BenchmarkFixtures.stub(WebSocketSession.class, Map.of(
+                    "isOpen", args -> true,
+                    "getId", args -> id,
+                    "getAcceptedProtocol", args -> null,
+                    "getExtensions", args -> List.of(),
+                    "sendMessage", args -> null));
+            sessions.add(session);
+
+            UUID pollId = pollIds.get(i % polls);
+            handler.afterConnectionEstablished(session);
+            subscribe(session, "polls/new");
+            subscribe(session, "polls/" + pollId + "/results");
+            subscribe(session, "polls/" + pollId + "/status");
+        }
+        long after = usedHeap();
+
+        System.out.printf("%n%d sessions, %d topics: %.1f MB heap, %d bytes/session%n",
+                SESSIONS, subscriptions.size(), (after - before) / 1048576.0, (after - before) / SESSIONS);
+        cursor = 0;
+    }
+
+    private void subscribe(WebSocketSession session, String topic) throws Exception {
+        handler.handleTextMessage(session, new TextMessage("{\"action\":\"subscribe\",\"topic\":\"" + topic + "\"}"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        int subscribers = subscriptions.values().stream().mapToInt(Set::size).sum();
+        System.out.printf("after disconnect: %d topics retained, %d subscribers%n", subscriptions.size(), subscribers);
+    }
+
+    /**
+     * Відключення через зворотний індекс сесія -> теми
+     */
+    @Benchmark
+    public void disconnect() throws Exception {
+        handler.afterConnectionClosed(sessions.get(cursor++), CloseStatus.NORMAL);
+    }
+
+    /**
+     * Колишній варіант: обхід підписників кожної теми, порожні теми залишаються
+     */
+    @Benchmark
+    public void legacyDisconnect() {
+        WebSocketSession session = sessions.get(cursor++);
+        WebSocketSession outbound = outboundSessions.remove(session.getId());
+        WebSocketSession subscriber = outbound != null ? outbound : session;
+        openSessions.remove(subscriber);
+        subscriptions.values().forEach(set -> set.remove(subscriber));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,400 @@
+package com.polls.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Навантажувальний тест: N виборців голосують через POST /api/votes,
+ * M клієнтів WebSocket слухають polls/{id}/results на /ws
+ *
+ * Кожен виборець і кожен клієнт - окремий віртуальний потік.
+ * Звіт: перцентилі латентності голосу (p50/p99/p999), затримка трансляції
+ * (час отримання кадру мінус timestamp сервера; клієнт і сервер на одній машині),
+ * кадри за секунду та втрачені сесії.
+ *
+ * Запуск (застосунок уже працює, напр. з профілем local):
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--voters=2000 --subscribers=200"
+ *
+ * Порівняння платформних і віртуальних потоків сервера: два прогони з однаковими
+ * аргументами проти
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=local
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=local -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true
+ * Режим сервера (з /actuator/info) друкується у заголовку звіту.
+ *
+ * Два вузли (polls.cluster.enabled=true, див. application-local.properties): голоси на
+ * один вузол, підписники на інший - кадри доходять через PostgreSQL NOTIFY
+ *   ... -Dloadtest.args="--base-url=http://localhost:8080 --ws-url=ws://localhost:8081/ws"
+ * Інший вузол об'єднує зміни за вікно коалесценції, тому кадрів менше, ніж голосів:
+ * очікування закінчується, коли кожен підписник побачив усі прийняті голоси.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final URI baseUrl;
+    private final URI wsUrl;
+    private final int voters;
+    private final int subscribers;
+    private final int options;
+    private final Duration drainTimeout;
+
+    private final HttpClient http;
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Метрики підписників
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicInteger droppedSessions = new AtomicInteger();
+    private final List<SubscriberListener> confirmedListeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Long> broadcastDelaysMs = new ConcurrentLinkedQueue<>();
+    private volatile boolean finished;
+
+    private LoadTest(Map<String, String> args) {
+        this.baseUrl = URI.create(args.getOrDefault("base-url", "http://localhost:8080"));
+        this.wsUrl = URI.create(args.getOrDefault("ws-url",
+                baseUrl.toString().replaceFirst("^http", "ws") + "/ws"));
+        this.voters = Integer.parseInt(args.getOrDefault("voters", "1000"));
+        this.subscribers = Integer.parseInt(args.getOrDefault("subscribers", "100"));
+        this.options = Integer.parseInt(args.getOrDefault("options", "4"));
+        this.drainTimeout = Duration.ofSeconds(Long.parseLong(args.getOrDefault("drain-seconds", "30")));
+        this.http = HttpClient.newBuilder()
+                .executor(virtualThreads)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Невідомий аргумент: " + arg
+                        + " (очікується --base-url=, --ws-url=, --voters=, --subscribers=, --options=, --drain-seconds=)");
+                System.exit(2);
+            }
+            String[] kv = arg.substring(2).split("=", 2);
+            args.put(kv[0], kv[1]);
+        }
+        new LoadTest(args).run();
+    }
+
+    // ========================================================================
+    // СЦЕНАРІЙ
+    // ========================================================================
+
+    private void run() throws Exception {
+        System.out.printf("Ціль: %s | WebSocket: %s | виборців: %d | підписників: %d | варіантів: %d%n",
+                baseUrl, wsUrl, voters, subscribers, options);
+        System.out.printf("Потоки сервера: %s%n", serverThreads());
+
+        // ФАЗА 1: голосування, варіанти та відбитки виборців (не вимірюється)
+        String organizerId = createFingerprint("organizer");
+        String pollId = createPoll(organizerId);
+        List<String> optionIds = new ArrayList<>();
+        for (int i = 0; i < options; i++) {
+            optionIds.add(createOption(pollId, "Варіант " + (i + 1)));
+        }
+        List<String> fingerprints = createFingerprints(voters);
+        System.out.printf("Підготовлено: poll %s, %d відбитків%n", pollId, fingerprints.size());
+
+        // ФАЗА 2: підписники
+        List<WebSocket> sockets = connectSubscribers(pollId);
+        System.out.printf("Підключено підписників: %d/%d%n", sockets.size(), subscribers);
+
+        // ФАЗА 3: голосування, усі виборці стартують одночасно
+        long[] latenciesNanos = new long[voters];
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> votes = new ArrayList<>(voters);
+
+        for (int i = 0; i < voters; i++) {
+            int voter = i;
+            votes.add(virtualThreads.submit(() -> {
+                start.await();
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "pollId", pollId,
+                        "fingerprintId", fingerprints.get(voter),
+                        "optionId", optionIds.get(voter % optionIds.size())));
+                long t0 = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = http.send(jsonPost("/api/votes", body),
+                            HttpResponse.BodyHandlers.discarding());
+                    latenciesNanos[voter] = System.nanoTime() - t0;
+                    if (response.statusCode() == 201) {
+                        created.incrementAndGet();
+                    } else if (response.statusCode() == 409) {
+                        rejected.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    latenciesNanos[voter] = System.nanoTime() - t0;
+                    failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long voteStart = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : votes) {
+            f.get();
+        }
+        long voteElapsedNanos = System.nanoTime() - voteStart;
+
+        // ФАЗА 4: дочекатися останніх трансляцій
+        long expectedFrames = (long) created.get() * sockets.size();
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        boolean crossNode = !wsUrl.getAuthority().equals(baseUrl.getAuthority());
+        while (framesReceived.get() < expectedFrames && !(crossNode && allSawTotal(created.get()))
+                && System.nanoTime() < drainDeadline) {
+            Thread.sleep(100);
+        }
+        long totalElapsedNanos = System.nanoTime() - voteStart;
+        finished = true;
+
+        for (WebSocket socket : sockets) {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+
+        report(latenciesNanos, created.get(), rejected.get(), failed.get(),
+                voteElapsedNanos, totalElapsedNanos, expectedFrames);
+        virtualThreads.shutdownNow();
+    }
+
+    // ========================================================================
+    // ПІДГОТОВКА ДАНИХ
+    // ========================================================================
+
+    private String createFingerprint(String userAgent) throws Exception {
+        String query = "?ip=" + encode("10.0." + ThreadLocalRandom.current().nextInt(256) + "."
+                + ThreadLocalRandom.current().nextInt(256))
+                + "&userAgent=" + encode("polls-loadtest/" + userAgent);
+        HttpResponse<String> response = http.send(
+                HttpRequest.newBuilder(baseUrl.resolve("/api/device-fingerprints" + query))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        return idFrom(response, "fingerprint");
+    }
+
+    private List<String> createFingerprints(int count) throws Exception {
+        List<Future<String>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String userAgent = "voter-" + i;
+            futures.add(virtualThreads.submit(() -> createFingerprint(userAgent)));
+        }
+        List<String> ids = new ArrayList<>(count);
+        for (Future<String> f : futures) {
+            ids.add(f.get());
+        }
+        return ids;
+    }
+
+    private String createPoll(String organizerId) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "title", "Load test " + System.currentTimeMillis(),
+                "question", "Навантажувальний тест: оберіть варіант",
+                "type", "SINGLE",
+                "multipleAnswers", false,
+                "showResults", true,
+                "organizerFingerprintId", organizerId));
+        return idFrom(http.send(jsonPost("/api/polls", body), HttpResponse.BodyHandlers.ofString()), "poll");
+    }
+
+    private String createOption(String pollId, String text) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("pollId", pollId, "text", text));
+        return idFrom(http.send(jsonPost("/api/poll-options", body), HttpResponse.BodyHandlers.ofString()), "option");
+    }
+
+    // ========================================================================
+    // WEBSOCKET-ПІДПИСНИКИ
+    // ========================================================================
+
+    private List<WebSocket> connectSubscribers(String pollId) throws Exception {
+        URI wsUri = wsUrl;
+        String subscribe = objectMapper.writeValueAsString(Map.of(
+                "action", "subscribe",
+                "topic", "polls/" + pollId + "/results"));
+
+        CountDownLatch confirmed = new CountDownLatch(subscribers);
+        List<CompletableFuture<WebSocket>> pending = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            pending.add(http.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(wsUri, new SubscriberListener(confirmed))
+                    .thenCompose(ws -> ws.sendText(subscribe, true)));
+        }
+
+        List<WebSocket> sockets = new ArrayList<>();
+        for (CompletableFuture<WebSocket> f : pending) {
+            try {
+                sockets.add(f.get(15, TimeUnit.SECONDS));
+            } catch (ExecutionException | TimeoutException e) {
+                droppedSessions.incrementAndGet();
+            }
+        }
+        if (!confirmed.await(15, TimeUnit.SECONDS)) {
+            System.out.printf("⚠️ Підписку підтвердили не всі: %d без підтвердження%n", confirmed.getCount());
+        }
+        return sockets;
+    }
+
+    /**
+     * Кожен підписник бачив кадр з усіма прийнятими голосами (кадри іншого вузла об'єднані)
+     */
+    private boolean allSawTotal(int totalVotes) {
+        return !confirmedListeners.isEmpty()
+                && confirmedListeners.stream().allMatch(l -> l.maxTotalVotes >= totalVotes);
+    }
+
+    private final class SubscriberListener implements WebSocket.Listener {
+        private final CountDownLatch confirmed;
+        private final StringBuilder buffer = new StringBuilder();
+        private volatile long maxTotalVotes;
+
+        SubscriberListener(CountDownLatch confirmed) {
+            this.confirmed = confirmed;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                long receivedAt = System.currentTimeMillis();
+                String message = buffer.toString();
+                buffer.setLength(0);
+                try {
+                    JsonNode frame = objectMapper.readTree(message);
+                    String type = frame.path("type").asText();
+                    if ("subscription_confirmed".equals(type)) {
+                        confirmedListeners.add(this);
+                        confirmed.countDown();
+                    } else if ("poll_results_update".equals(type)) {
+                        maxTotalVotes = Math.max(maxTotalVotes, frame.path("data").path("totalVotes").asLong());
+                        // Знімок при підписці - не трансляція голосу
+                        if (!frame.path("snapshot").asBoolean()) {
+                            framesReceived.incrementAndGet();
+                            if (frame.has("timestamp")) {
+                                broadcastDelaysMs.add(receivedAt - frame.get("timestamp").asLong());
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    // Непарсовані кадри не рахуються
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            if (!finished) {
+                droppedSessions.incrementAndGet();
+            }
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            if (!finished) {
+                droppedSessions.incrementAndGet();
+            }
+        }
+    }
+
+    // ========================================================================
+    // ЗВІТ
+    // ========================================================================
+
+    private void report(long[] latenciesNanos, int created, int rejected, int failed,
+                        long voteElapsedNanos, long totalElapsedNanos, long expectedFrames) {
+        long[] latencies = Arrays.stream(latenciesNanos).filter(l -> l > 0).sorted().toArray();
+        long[] delays = broadcastDelaysMs.stream().mapToLong(Long::longValue).sorted().toArray();
+        double voteSeconds = voteElapsedNanos / 1e9;
+        double totalSeconds = totalElapsedNanos / 1e9;
+
+        System.out.println();
+        System.out.println("=".repeat(60));
+        System.out.println("ГОЛОСИ");
+        System.out.printf("  прийнято: %d | повтор (409): %d | помилки: %d%n", created, rejected, failed);
+        System.out.printf("  пропускна здатність: %.1f голосів/с%n", latencies.length / voteSeconds);
+        System.out.printf("  латентність, мс: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6,
+                percentile(latencies, 99.9) / 1e6, percentile(latencies, 100) / 1e6);
+        System.out.println("ТРАНСЛЯЦІЯ");
+        System.out.printf("  кадрів: %d з очікуваних %d%n", framesReceived.get(), expectedFrames);
+        System.out.printf("  кадрів/с: %.1f%n", framesReceived.get() / totalSeconds);
+        System.out.printf("  затримка, мс: p50=%d p99=%d p999=%d max=%d%n",
+                percentile(delays, 50), percentile(delays, 99), percentile(delays, 99.9), percentile(delays, 100));
+        System.out.printf("  втрачено сесій: %d%n", droppedSessions.get());
+        System.out.println("=".repeat(60));
+    }
+
+    /**
+     * МАТЕМАТИКА: перцентиль за найближчим рангом, rank = ceil(p/100 * n)
+     */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+    }
+
+    // ========================================================================
+    // HTTP
+    // ========================================================================
+
+    /**
+     * info.threads.virtual з /actuator/info: який режим потоків у сервера під тестом
+     */
+    private String serverThreads() {
+        try {
+            HttpResponse<String> response = http.send(
+                    HttpRequest.newBuilder(baseUrl.resolve("/actuator/info")).timeout(Duration.ofSeconds(5)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode virtual = objectMapper.readTree(response.body()).path("threads").path("virtual");
+            if (virtual.isMissingNode()) {
+                return "невідомо";
+            }
+            return virtual.asBoolean() ? "віртуальні" : "платформні";
+        } catch (Exception e) {
+            return "невідомо (" + e.getMessage() + ")";
+        }
+    }
+
+    private HttpRequest jsonPost(String path, String body) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String idFrom(HttpResponse<String> response, String what) throws Exception {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Не вдалося створити " + what + ": HTTP "
+                    + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asText();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
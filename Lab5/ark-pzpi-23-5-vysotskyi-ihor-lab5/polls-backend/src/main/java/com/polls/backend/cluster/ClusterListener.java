@@ -0,0 +1,213 @@
+package com.polls.backend.cluster;
+
+import com.polls.backend.service.FrozenResultsService;
+import com.polls.backend.service.PollService;
+import com.polls.backend.service.PollStatusRegistry;
+import com.polls.backend.service.PollTallyCache;
+import com.polls.backend.service.RatingHistogramService;
+import com.polls.backend.service.WebSocketBroadcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Зміни з інших вузлів: LISTEN poll_changes і ретрансляція локальним WebSocket- та SSE-підписникам
+ *
+ * Окремий потік тримає одне з'єднання пулу з LISTEN і читає сповіщення. Кадри
+ * накопичуються по голосуваннях і раз на polls.cluster.coalesce-ms застосовуються:
+ * скидаються локальні кеші (версія підрахунку, статус / Poll для типу p, заморожені
+ * результати та гістограми оцінок кіосків у пам'яті), а статистика перераховується один раз і розсилається лише
+ * якщо на цьому вузлі є підписники polls/{id}/results.
+ *
+ * Після обриву з'єднання сповіщення могли загубитися, тому при перепідключенні
+ * локальні кеші скидаються повністю.
+ */
+@Component
+public class ClusterListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterListener.class);
+
+    @Value("${polls.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${polls.cluster.coalesce-ms:100}")
+    private long coalesceMs;
+
+    @Value("${polls.cluster.reconnect-ms:5000}")
+    private long reconnectMs;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private FrozenResultsService frozenResultsService;
+
+    @Autowired
+    private PollService pollService;
+
+    @Autowired
+    private RatingHistogramService ratingHistogramService;
+
+    @Autowired
+    private WebSocketBroadcaster webSocketBroadcaster;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<UUID, Character> incoming = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread listener;
+    private ScheduledExecutorService applier;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = Thread.ofPlatform().name("cluster-listen").daemon().start(this::listen);
+        applier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-apply");
+            thread.setDaemon(true);
+            return thread;
+        });
+        applier.scheduleWithFixedDelay(this::applyPending, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        if (applier != null) {
+            applier.shutdownNow();
+        }
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + ClusterNotifier.CHANNEL);
+                }
+                if (reconnect) {
+                    incoming.merge(ClusterNotifier.ALL_POLLS, ClusterNotifier.ALL, ClusterNotifier::stronger);
+                }
+                reconnect = true;
+                logger.info("👂 LISTEN {} (вузол {})", ClusterNotifier.CHANNEL, clusterNotifier.nodeId());
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("⚠️ LISTEN {} перервано: {}; повтор через {} мс",
+                        ClusterNotifier.CHANNEL, e.getMessage(), reconnectMs);
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void receive(String payload) {
+        ClusterNotifier.Change change = ClusterNotifier.decode(payload);
+        if (change == null || change.node().equals(clusterNotifier.nodeId())) {
+            return;
+        }
+        logger.debug("🌐 Зміна з вузла {}: {} {} v{}", change.node(), change.kind(), change.pollId(), change.version());
+        count("received");
+        incoming.merge(change.pollId(), change.kind(), ClusterNotifier::stronger);
+    }
+
+    void applyPending() {
+        for (UUID pollId : incoming.keySet()) {
+            Character kind = incoming.remove(pollId);
+            if (kind == null) {
+                continue;
+            }
+            try {
+                apply(pollId, kind);
+            } catch (RuntimeException e) {
+                logger.error("❌ Не вдалося застосувати зміну {} для Poll {}", kind, pollId, e);
+            }
+        }
+    }
+
+    private void apply(UUID pollId, char kind) {
+        if (kind == ClusterNotifier.ALL) {
+            pollTallyCache.invalidateAll();
+            pollStatusRegistry.evictAll();
+            frozenResultsService.forgetAll();
+            ratingHistogramService.clear();
+            return;
+        }
+
+        if (kind == ClusterNotifier.POLL) {
+            pollStatusRegistry.evict(pollId);
+        }
+        frozenResultsService.forget(pollId);
+        // Оцінки кіосків з іншого вузла не потрапили в локальні гістограми - засів заново
+        ratingHistogramService.forget(pollId);
+        pollTallyCache.bump(pollId);
+
+        // Перерахунок лише якщо на цьому вузлі хтось дивиться результати
+        if (webSocketBroadcaster.hasResultsSubscribers(pollId)) {
+            long version = pollTallyCache.version(pollId);
+            Map<String, Object> stats = pollService.getPollStatistics(pollId);
+            if (stats != null) {
+                webSocketBroadcaster.broadcastPollResults(pollId, version, stats);
+                count("rebroadcast");
+            }
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("polls.cluster.notifications")
+                .description("Кластерні сповіщення про зміни голосувань")
+                .tag("direction", "in")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
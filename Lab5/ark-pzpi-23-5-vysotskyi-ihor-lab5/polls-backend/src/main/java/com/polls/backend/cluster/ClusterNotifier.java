@@ -0,0 +1,208 @@
+package com.polls.backend.cluster;
+
+import com.polls.backend.service.PollTallyCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сповіщення інших вузлів про зміни голосувань через PostgreSQL NOTIFY
+ *
+ * Кадр "вузол:тип:pollId:версія" (~60 байт): v - голоси, p - саме голосування
+ * (статус, варіанти, видалення), * - уся БД (відновлення знімка / копії).
+ * Зміни накопичуються і раз на polls.cluster.coalesce-ms відправляються одним
+ * запитом: сотня голосів за одне голосування - один NOTIFY, а не сотня.
+ * Усередині транзакції зміна потрапляє в чергу лише після коміту, щоб сусід
+ * не перечитав ще не зафіксований стан. Приймає кадри ClusterListener.
+ */
+@Component
+public class ClusterNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterNotifier.class);
+
+    public static final String CHANNEL = "poll_changes";
+    public static final char VOTES = 'v';
+    public static final char POLL = 'p';
+    public static final char ALL = '*';
+    public static final UUID ALL_POLLS = new UUID(0L, 0L);
+
+    @Value("${polls.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${polls.cluster.coalesce-ms:100}")
+    private long coalesceMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Власні кадри PostgreSQL доставляє і самому вузлу: за nodeId вони відкидаються
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<UUID, Character> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public record Change(String node, char kind, UUID pollId, long version) {}
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-notify");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+        logger.info("🌐 Кластерні сповіщення увімкнено: вузол {}, канал {}", nodeId, CHANNEL);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public void votesChanged(UUID pollId) {
+        publish(pollId, VOTES);
+    }
+
+    public void pollChanged(UUID pollId) {
+        publish(pollId, POLL);
+    }
+
+    public void allChanged() {
+        publish(ALL_POLLS, ALL);
+    }
+
+    private void publish(UUID pollId, char kind) {
+        if (!enabled || pollId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.merge(pollId, kind, ClusterNotifier::stronger);
+                }
+            });
+        } else {
+            pending.merge(pollId, kind, ClusterNotifier::stronger);
+        }
+    }
+
+    /**
+     * Усі зміни з черги - одним SELECT pg_notify(...) FROM unnest(...)
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> payloads = new ArrayList<>();
+        for (UUID pollId : pending.keySet()) {
+            Character kind = pending.remove(pollId);
+            if (kind != null) {
+                payloads.add(encode(new Change(nodeId, kind, pollId, pollTallyCache.version(pollId))));
+            }
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT pg_notify(?, payload) FROM unnest(?) AS payload")) {
+                    statement.setString(1, CHANNEL);
+                    statement.setArray(2, connection.createArrayOf("text", payloads.toArray()));
+                    statement.executeQuery().close();
+                }
+                return null;
+            });
+            count("sent", payloads.size());
+        } catch (DataAccessException e) {
+            // Сусіди побачать зміну з наступним сповіщенням або після перепідключення
+            logger.warn("⚠️ NOTIFY {} не вдався ({} змін): {}", CHANNEL, payloads.size(), e.getMessage());
+            count("error", payloads.size());
+        }
+    }
+
+    private void count(String outcome, int amount) {
+        Counter.builder("polls.cluster.notifications")
+                .description("Кластерні сповіщення про зміни голосувань")
+                .tag("direction", "out")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+
+    /**
+     * * сильніше за p, p сильніше за v: сусід скидає більше кешів
+     */
+    public static char stronger(char a, char b) {
+        return rank(a) >= rank(b) ? a : b;
+    }
+
+    private static int rank(char kind) {
+        return switch (kind) {
+            case ALL -> 2;
+            case POLL -> 1;
+            default -> 0;
+        };
+    }
+
+    public static String encode(Change change) {
+        return change.node() + ":" + change.kind() + ":" + change.pollId() + ":" + change.version();
+    }
+
+    /**
+     * @return null для кадру чужого формату
+     */
+    public static Change decode(String payload) {
+        String[] parts = payload != null ? payload.split(":") : new String[0];
+        if (parts.length != 4 || parts[1].length() != 1) {
+            return null;
+        }
+        try {
+            return new Change(parts[0], parts[1].charAt(0), UUID.fromString(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
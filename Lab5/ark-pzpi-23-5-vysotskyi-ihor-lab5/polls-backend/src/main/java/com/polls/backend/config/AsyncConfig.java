@@ -0,0 +1,41 @@
+package com.polls.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Пул потоків для фонових задач (імпорт CSV, резервні копії)
+ * Довгі операції не виконуються на потоках HTTP-запитів
+ *
+ * ВІРТУАЛЬНІ ПОТОКИ: при spring.threads.virtual.enabled=true задачі виконуються на
+ * віртуальних потоках; pool-size та queue-capacity і далі обмежують кількість
+ * одночасних важких задач (з'єднання з БД, диск), відмова при повній черзі та сама.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${jobs.pool-size:2}")
+    private int poolSize;
+
+    @Value("${jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = "jobExecutor")
+    public ThreadPoolTaskExecutor jobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("job-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
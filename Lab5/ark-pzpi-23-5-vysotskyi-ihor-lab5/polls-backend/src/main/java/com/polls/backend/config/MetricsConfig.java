@@ -0,0 +1,79 @@
+package com.polls.backend.config;
+
+import com.polls.backend.service.FrozenResultsService;
+import com.polls.backend.service.PollTallyCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики, які не належать одному запиту: кеші та черга фонових задач
+ * Таймери голосів, трансляцій, експорту та копій - у відповідних сервісах
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * polls.cache.requests{cache, result} та polls.cache.hit.ratio{cache}
+     */
+    @Bean
+    public MeterBinder pollCacheMetrics(PollTallyCache tallyCache, FrozenResultsService frozenResults) {
+        return registry -> {
+            cacheCounter(registry, "tally", "hit", tallyCache, PollTallyCache::getHits);
+            cacheCounter(registry, "tally", "miss", tallyCache, PollTallyCache::getMisses);
+            cacheCounter(registry, "tally", "not_modified", tallyCache, PollTallyCache::getNotModified);
+            Gauge.builder("polls.cache.hit.ratio", tallyCache,
+                            c -> ratio(c.getHits() + c.getNotModified(), c.getMisses()))
+                    .tag("cache", "tally")
+                    .description("Частка відповідей статистики без перерахунку")
+                    .register(registry);
+
+            cacheCounter(registry, "frozen_results", "memory", frozenResults, FrozenResultsService::getMemoryHits);
+            cacheCounter(registry, "frozen_results", "database", frozenResults, FrozenResultsService::getDatabaseHits);
+            cacheCounter(registry, "frozen_results", "miss", frozenResults, FrozenResultsService::getMisses);
+            Gauge.builder("polls.cache.hit.ratio", frozenResults,
+                            f -> ratio(f.getMemoryHits() + f.getDatabaseHits(), f.getMisses()))
+                    .tag("cache", "frozen_results")
+                    .description("Частка читань закритих голосувань зі знімка")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Глибина черги jobExecutor (імпорт CSV, копії, знімки)
+     */
+    @Bean
+    public MeterBinder jobQueueMetrics(@Qualifier("jobExecutor") ThreadPoolTaskExecutor jobExecutor) {
+        return registry -> {
+            Gauge.builder("polls.jobs.queue.depth", jobExecutor, ThreadPoolTaskExecutor::getQueueSize)
+                    .description("Задачі в черзі на виконання")
+                    .register(registry);
+            Gauge.builder("polls.jobs.active", jobExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                    .description("Задачі, що виконуються")
+                    .register(registry);
+        };
+    }
+
+    private static <T> void cacheCounter(MeterRegistry registry,
+                                         String cache, String result, T source, ToDoubleFunction<T> count) {
+        FunctionCounter.builder("polls.cache.requests", source, count)
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * МАТЕМАТИКА: ratio = hits / (hits + misses), 0 до першого запиту
+     */
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+}
@@ -1,22 +1,55 @@
 package com.polls.backend.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 import com.polls.backend.handler.PollWebSocketHandler;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocket
 public class WebSocketHandlerConfig implements WebSocketConfigurer {
 
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
     @Autowired
     private PollWebSocketHandler pollWebSocketHandler;
 
+    @Value("${ws.permessage-deflate:true}")
+    private boolean permessageDeflate;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(pollWebSocketHandler, "/ws")
+                .setHandshakeHandler(handshakeHandler())
                 .setAllowedOrigins("*");
     }
-}
\ No newline at end of file
+
+    /**
+     * permessage-deflate (RFC 7692) реалізує Tomcat і погоджує, якщо клієнт його запропонував;
+     * ws.permessage-deflate=false прибирає розширення з рукостискання (менше CPU на кадр)
+     */
+    private DefaultHandshakeHandler handshakeHandler() {
+        return new DefaultHandshakeHandler() {
+            @Override
+            protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                         List<WebSocketExtension> requested,
+                                                                         List<WebSocketExtension> supported) {
+                List<WebSocketExtension> accepted = super.filterRequestedExtensions(request, requested, supported);
+                if (permessageDeflate) {
+                    return accepted;
+                }
+                return accepted.stream()
+                        .filter(extension -> !PERMESSAGE_DEFLATE.equals(extension.getName()))
+                        .toList();
+            }
+        };
+    }
+}
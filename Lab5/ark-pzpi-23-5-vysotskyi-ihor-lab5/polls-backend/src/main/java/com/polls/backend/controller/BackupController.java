@@ -1,13 +1,16 @@
 package com.polls.backend.controller;
 
+import com.polls.backend.dto.BackupJobStatusDTO;
 import com.polls.backend.service.BackupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/admin/backups")
@@ -19,26 +22,34 @@ import java.util.Map;
 
     /**
      * POST /api/admin/backups
-     * Створити резервну копію БД
+     * Створити резервну копію БД (фонова задача)
      */
     @PostMapping
     @Operation(summary = "Створити резервну копію")
-    public ResponseEntity<Map<String, String>> createBackup() {
+    public ResponseEntity<?> createBackup() {
         try {
-            String filepath = backupService.createBackup();
-            return ResponseEntity.status(201)
-                    .body(Map.of(
-                            "status", "Резервна копія створена",
-                            "filepath", filepath,
-                            "timestamp", java.time.LocalDateTime.now().toString()
-                    ));
-        } catch (Exception e) {
-            return ResponseEntity.status(500)
-                    .body(Map.of(
-                            "error", "Помилка при створенні резервної копії",
-                            "details", e.getMessage()
-                    ));
+            BackupJobStatusDTO job = backupService.startBackup();
+            return ResponseEntity.status(202)
+                    .header("Location", "/api/admin/backups/jobs/" + job.getJobId())
+                    .body(job);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "Черга фонових задач переповнена, спробуйте пізніше"));
+        }
+    }
+
+    /**
+     * GET /api/admin/backups/jobs/{jobId}
+     * Стан задачі створення / відновлення
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Отримати стан задачі резервного копіювання")
+    public ResponseEntity<BackupJobStatusDTO> getJobStatus(@PathVariable UUID jobId) {
+        BackupJobStatusDTO job = backupService.getJobStatus(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(job);
     }
 
     /**
@@ -52,28 +63,44 @@ import java.util.Map;
         return ResponseEntity.ok(backups);
     }
 
+    /**
+     * GET /api/admin/backups/{name}/verify
+     * Перевірити контрольні суми SHA-256 резервної копії
+     */
+    @GetMapping("/{name}/verify")
+    @Operation(summary = "Перевірити цілісність резервної копії")
+    public ResponseEntity<Map<String, Object>> verifyBackup(@PathVariable String name) {
+        Map<String, Object> result = backupService.verifyBackup(name);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * POST /api/admin/backups/restore
-     * Відновити з резервної копії
+     * Відновити з резервної копії (фонова задача)
+     * filepath - ім'я копії з маніфесту або її шлях
      */
     @PostMapping("/restore")
     @Operation(summary = "Відновити з резервної копії")
-    public ResponseEntity<Map<String, String>> restoreBackup(
+    public ResponseEntity<?> restoreBackup(
             @RequestParam String filepath) {
 
-        boolean success = backupService.restoreBackup(filepath);
-
-        if (success) {
-            return ResponseEntity.ok(Map.of(
-                    "status", "Резервна копія відновлена успішно",
-                    "filepath", filepath
-            ));
-        } else {
-            return ResponseEntity.status(500)
+        try {
+            BackupJobStatusDTO job = backupService.startRestore(filepath);
+            return ResponseEntity.status(202)
+                    .header("Location", "/api/admin/backups/jobs/" + job.getJobId())
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
                     .body(Map.of(
-                            "error", "Помилка при відновленні резервної копії",
+                            "error", e.getMessage(),
                             "filepath", filepath
                     ));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "Черга фонових задач переповнена, спробуйте пізніше"));
         }
     }
 
@@ -94,4 +121,4 @@ import java.util.Map;
                 "deletedCount", deleted
         ));
     }
-}
\ No newline at end of file
+}
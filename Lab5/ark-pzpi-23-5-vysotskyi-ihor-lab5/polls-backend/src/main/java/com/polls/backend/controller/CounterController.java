@@ -0,0 +1,49 @@
+package com.polls.backend.controller;
+
+import com.polls.backend.service.VoteCounterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/counters")
+@Tag(name = "Counters", description = "Шардовані лічильники голосів: звірка та перебудова")
+public class CounterController {
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    /**
+     * POST /api/admin/counters/reconcile?repair=false
+     * Звірити лічильники з COUNT(*) по votes (repair=true - виправити розбіжності)
+     */
+    @PostMapping("/reconcile")
+    @Operation(summary = "Звірити лічильники голосів з таблицею votes")
+    public ResponseEntity<?> reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            return ResponseEntity.ok(voteCounterService.reconcile(repair));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/admin/counters/rebuild
+     * Перерахувати всі лічильники з votes
+     */
+    @PostMapping("/rebuild")
+    @Operation(summary = "Перебудувати лічильники голосів з таблиці votes")
+    public ResponseEntity<?> rebuild() {
+        try {
+            return ResponseEntity.ok(Map.of("rows", voteCounterService.rebuild()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -4,15 +4,19 @@ import com.polls.backend.dto.*;
 import com.polls.backend.entity.IotDevice;
 import com.polls.backend.entity.IotDeviceConfig;
 import com.polls.backend.entity.IotVote;
+import com.polls.backend.ratelimit.RateLimiter;
 import com.polls.backend.service.IotVoteService;
+import com.polls.backend.service.PollClosedException;
 import com.polls.backend.repository.IotDeviceRepository;
 import com.polls.backend.repository.IotDeviceConfigRepository;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
@@ -35,6 +39,9 @@ public class IotController {
     @Autowired
     private IotDeviceConfigRepository iotDeviceConfigRepository;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
     /**
      * СИНХРОНИЗАЦИЯ киоска з сервером
      * GET /api/iot/sync/{kioskId}
@@ -93,7 +100,17 @@ public class IotController {
      */
     @PostMapping("/votes")
     @Operation(summary = "Зареєструвати IoT голос")
-    public ResponseEntity<?> registerIotVote(@Valid @RequestBody CreateIotVoteRequestDTO request) {
+    public ResponseEntity<?> registerIotVote(@Valid @RequestBody CreateIotVoteRequestDTO request,
+                                             HttpServletRequest servletRequest) {
+        // Ліміт на кіоск і IP - до пошуку пристрою та голосування
+        RateLimiter.Decision decision =
+                rateLimiter.checkIotVote(request.getIotDeviceId(), servletRequest.getRemoteAddr());
+        if (!decision.allowed()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                    .body(Map.of("error", "Too many votes from " + decision.dimension()));
+        }
+
         try {
             UUID iotDeviceId = UUID.fromString(request.getIotDeviceId());
             UUID pollId = UUID.fromString(request.getPollId());
@@ -137,8 +154,20 @@ public class IotController {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
         } catch (IllegalArgumentException e) {
+            // Некоректний UUID або варіант не з цього голосування
             return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Invalid UUID format"));
+                    .body(Map.of("error", e.getMessage()));
+        } catch (PollClosedException e) {
+            // Голосування CLOSED / ARCHIVED: результати заморожено, голос не приймається
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiErrorResponseDTO(
+                            "CONFLICT",
+                            e.getMessage(),
+                            LocalDateTime.now(),
+                            "/api/iot/votes",
+                            null,
+                            "POLL_CLOSED"
+                    ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
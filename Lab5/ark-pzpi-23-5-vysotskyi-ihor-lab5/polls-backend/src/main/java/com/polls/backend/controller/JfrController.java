@@ -0,0 +1,84 @@
+package com.polls.backend.controller;
+
+import com.polls.backend.service.JfrRecordingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/jfr")
+@Tag(name = "JFR", description = "Запис Java Flight Recorder: етапи голосування, трансляції, задачі")
+public class JfrController {
+
+    @Autowired
+    private JfrRecordingService jfrRecordingService;
+
+    /**
+     * POST /api/admin/jfr/start?maxAgeMinutes=10&maxSizeMb=100
+     */
+    @PostMapping("/start")
+    @Operation(summary = "Почати запис JFR")
+    public ResponseEntity<?> start(@RequestParam(required = false) Long maxAgeMinutes,
+                                   @RequestParam(required = false) Long maxSizeMb) {
+        try {
+            return ResponseEntity.ok(jfrRecordingService.start(
+                    maxAgeMinutes != null ? Duration.ofMinutes(maxAgeMinutes) : null,
+                    maxSizeMb != null ? maxSizeMb * 1024 * 1024 : null));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/stop")
+    @Operation(summary = "Зупинити запис JFR і зберегти файл")
+    public ResponseEntity<?> stop() {
+        try {
+            return ResponseEntity.ok(jfrRecordingService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/dump")
+    @Operation(summary = "Зберегти поточний запис JFR без зупинки")
+    public ResponseEntity<?> dump() {
+        try {
+            return ResponseEntity.ok(jfrRecordingService.dump());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Стан запису JFR")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(jfrRecordingService.status());
+    }
+
+    /**
+     * GET /api/admin/jfr/summary?file=polls-....jfr&top=10
+     * Найповільніші етапи голосування / трансляції / задачі зі збереженого файлу
+     */
+    @GetMapping("/summary")
+    @Operation(summary = "Зведення найповільніших етапів зі збереженого запису")
+    public ResponseEntity<?> summary(@RequestParam String file, @RequestParam(defaultValue = "10") int top) {
+        try {
+            return ResponseEntity.ok(jfrRecordingService.summarize(file, Math.max(1, top)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,26 +1,47 @@
 package com.polls.backend.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.polls.backend.dto.*;
 import com.polls.backend.entity.Poll;
+import com.polls.backend.service.CsvImportService;
 import com.polls.backend.service.ExportService;
+import com.polls.backend.service.PollResultsStreamService;
 import com.polls.backend.service.PollService;
+import com.polls.backend.service.PollTallyCache;
 import com.polls.backend.service.QrCodeService;
+import com.polls.backend.service.TextTermsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/polls")
 @Tag(name = "Polls", description = "Управління голосуваннями")
 public class PollController {
 
+    private static final Logger logger = LoggerFactory.getLogger(PollController.class);
+
     @Autowired
     private PollService pollService;
 
@@ -144,58 +165,165 @@ public class PollController {
     /**
      * Отримати статистику голосування
      * ✅ ВИПРАВЛЕНО: Правильна конвертація типів
+     * КЕШУВАННЯ: ETag - хеш вмісту (тіло кешується за версією підрахунку), 304 на If-None-Match
      */
     @GetMapping("/{id}/statistics")
     @Operation(summary = "Отримати статистику голосування")
-    public ResponseEntity<PollStatisticsResponseDTO> getPollStatistics(
-            @PathVariable UUID id) {
+    public ResponseEntity<byte[]> getPollStatistics(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        try {
+        return conditionalJson(id, "statistics", ifNoneMatch, () -> {
             Map<String, Object> stats = pollService.getPollStatistics(id);
-            if (stats == null) {
+            return stats != null ? convertToStatisticsDTO(id, stats) : null;
+        });
+    }
+
+    /**
+     * Потік результатів (Server-Sent Events) замість опитування /statistics щосекунди
+     * Події - ті самі кадри poll_results_update, що й WebSocket-тема polls/{id}/results;
+     * EventSource при перепідключенні надсилає Last-Event-ID, і знімок не повторюється
+     */
+    @GetMapping(value = "/{id}/results/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Потік результатів голосування (SSE)")
+    public ResponseEntity<?> streamResults(
+            @PathVariable UUID id,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            SseEmitter emitter = pollResultsStreamService.subscribe(id, lastEventId);
+            if (emitter == null) {
                 return ResponseEntity.notFound().build();
             }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    // nginx: не буферизувати потік
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            PollStatisticsResponseDTO response = convertToStatisticsDTO(id, stats);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    /**
+     * Найчастіші слова відповідей OPEN-голосування (хмара слів)
+     * Частоти наближені (count-min sketch): завищені не більше ніж на errorBound
+     * Оновлення - WebSocket-тема polls/{id}/terms
+     */
+    @GetMapping("/{id}/terms")
+    @Operation(summary = "Найчастіші слова текстових відповідей")
+    public ResponseEntity<?> getTopTerms(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "30") int limit) {
+        try {
+            Map<String, Object> terms = textTermsService.getTopTerms(id, limit);
+            if (terms == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(terms);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
     /**
      * Отримати математичні метрики розподілу голосів
      * ✅ ВИПРАВЛЕНО: Правильна робота з типами Map<String, Double>
+     * КЕШУВАННЯ: ETag - хеш вмісту (тіло кешується за версією підрахунку), 304 на If-None-Match
      */
     @GetMapping("/{id}/metrics")
     @Operation(summary = "Отримати метрики розподілу голосів")
-    public ResponseEntity<DistributionMetricsResponseDTO> getDistributionMetrics(
-            @PathVariable UUID id) {
+    public ResponseEntity<byte[]> getDistributionMetrics(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        try {
-            Map<String, Double> metrics = pollService.calculateDistributionMetrics(id);
+        return conditionalJson(id, "metrics", ifNoneMatch, () -> {
+            Map<String, Object> metrics = pollService.calculateDistributionMetrics(id);
             if (metrics == null || metrics.isEmpty()) {
-                return ResponseEntity.notFound().build();
+                return null;
             }
 
             DistributionMetricsResponseDTO response = new DistributionMetricsResponseDTO();
-            response.setMean(metrics.getOrDefault("mean", 0.0));
-            response.setStdDeviation(metrics.getOrDefault("stdDeviation", 0.0));
-            response.setCoefficientOfVariation(metrics.getOrDefault("coefficientOfVariation", 0.0));
-            response.setMin(metrics.getOrDefault("min", 0.0));
-            response.setMax(metrics.getOrDefault("max", 0.0));
+            response.setMean(metricValue(metrics, "mean"));
+            response.setStdDeviation(metricValue(metrics, "stdDeviation"));
+            response.setCoefficientOfVariation(metricValue(metrics, "coefficientOfVariation"));
+            response.setMin(metricValue(metrics, "min"));
+            response.setMax(metricValue(metrics, "max"));
             response.setPollId(id.toString());
 
             // totalVotes is Long, convert from Double if needed
-            Double totalVotesDouble = metrics.get("totalVotes");
-            if (totalVotesDouble != null) {
-                response.setTotalVotes(totalVotesDouble.longValue());
+            if (metrics.get("totalVotes") instanceof Number totalVotes) {
+                response.setTotalVotes(totalVotes.longValue());
+            }
+
+            // Знімки, заморожені до появи гістограм, цих полів не мають - null
+            if (metrics.get("median") instanceof Number median) {
+                response.setMedian(median.doubleValue());
+            }
+            if (metrics.get("p90") instanceof Number p90) {
+                response.setP90(p90.doubleValue());
             }
+            response.setHistogram(metricList(metrics, "histogram"));
+            response.setKiosks(metricList(metrics, "kiosks"));
+            return response;
+        });
+    }
+
+    private static Double metricValue(Map<String, Object> metrics, String key) {
+        return metrics.get(key) instanceof Number value ? value.doubleValue() : 0.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> metricList(Map<String, Object> metrics, String key) {
+        return metrics.get(key) instanceof List<?> list ? (List<Map<String, Object>>) list : null;
+    }
+
+    /**
+     * Умовна JSON-відповідь за версією підрахунку голосування
+     * 1. Тіло та його ETag (хеш вмісту) з кешу PollTallyCache або обчислені заново
+     * 2. If-None-Match збігається з ETag → 304 без тіла; тег однаковий на всіх вузлах
+     */
+    private ResponseEntity<byte[]> conditionalJson(UUID id, String kind, String ifNoneMatch,
+                                                   Supplier<Object> compute) {
+        // Версію читаємо до обчислення (див. PollTallyCache.body)
+        long version = pollTallyCache.version(id);
+        CacheControl cacheControl = statsMaxAgeSeconds > 0
+                ? CacheControl.maxAge(Duration.ofSeconds(statsMaxAgeSeconds)).mustRevalidate()
+                : CacheControl.noCache();
 
-            return ResponseEntity.ok(response);
+        try {
+            PollTallyCache.Tagged body = pollTallyCache.tagged(id, kind, version, () -> {
+                Object dto = compute.get();
+                if (dto == null) {
+                    return null;
+                }
+                try {
+                    return objectMapper.writeValueAsBytes(dto);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            if (body == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            if (PollTallyCache.matches(ifNoneMatch, body.etag())) {
+                pollTallyCache.recordNotModified();
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(body.etag())
+                        .cacheControl(cacheControl)
+                        .build();
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(body.etag())
+                    .cacheControl(cacheControl)
+                    .body(body.json());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("❌ Помилка формування {} для Poll {}", kind, id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -210,6 +338,24 @@ public class PollController {
     @Autowired
     private QrCodeService qrCodeService;
 
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private PollResultsStreamService pollResultsStreamService;
+
+    @Autowired
+    private TextTermsService textTermsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${polls.stats.max-age-seconds:0}")
+    private long statsMaxAgeSeconds;
+
     /**
      * Получить QR-код для голосования
      * GET /api/polls/{id}/qr
@@ -260,23 +406,71 @@ public class PollController {
     /**
      * Экспортировать все опросы в CSV
      * GET /api/polls/export/csv
+     * РЕФАКТОРИНГ: Потокова відповідь (UTF-8), gzip якщо клієнт надсилає Accept-Encoding: gzip
      */
     @GetMapping("/export/csv")
     @Operation(summary = "Экспортировать все опросы в CSV")
-    public ResponseEntity<String> exportAllPollsCsv() {
-        try {
-            String csv = exportService.exportAllPollsToCsv();
-            if (csv == null || csv.isEmpty()) {
-                return ResponseEntity.noContent().build();
+    public ResponseEntity<StreamingResponseBody> exportAllPollsCsv(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    exportService.writeAllPollsCsv(gzipOut);
+                }
+            } else {
+                exportService.writeAllPollsCsv(out);
             }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=all_polls.csv")
+                .header("Content-Type", "text/csv;charset=UTF-8")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=all_polls.csv")
-                    .header("Content-Type", "text/csv;charset=UTF-8")
-                    .body(csv);
+    /**
+     * Імпортувати голосування з CSV (фонова задача)
+     * POST /api/polls/import/csv (multipart: file)
+     */
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Імпортувати голосування з CSV")
+    public ResponseEntity<?> importPollsCsv(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam UUID organizerFingerprintId) {
+        try {
+            CsvImportJobStatusDTO status = csvImportService.startImport(file, organizerFingerprintId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/polls/import/jobs/" + status.getJobId())
+                    .body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Черга імпорту переповнена, спробуйте пізніше"));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Import failed", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Стан імпорту: прогрес, помилки по рядках, швидкість
+     * GET /api/polls/import/jobs/{jobId}
+     */
+    @GetMapping("/import/jobs/{jobId}")
+    @Operation(summary = "Отримати стан імпорту CSV")
+    public ResponseEntity<CsvImportJobStatusDTO> getImportJobStatus(@PathVariable UUID jobId) {
+        CsvImportJobStatusDTO status = csvImportService.getJobStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(status);
     }
 
     /**
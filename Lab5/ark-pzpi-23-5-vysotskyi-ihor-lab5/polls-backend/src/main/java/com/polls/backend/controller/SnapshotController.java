@@ -0,0 +1,115 @@
+package com.polls.backend.controller;
+
+import com.polls.backend.dto.BackupJobStatusDTO;
+import com.polls.backend.dto.SnapshotRequestDTO;
+import com.polls.backend.service.BackupService;
+import com.polls.backend.service.SnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/snapshots")
+@Tag(name = "Snapshots", description = "Знімки БД через COPY (без pg_dump)")
+public class SnapshotController {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private BackupService backupService;
+
+    /**
+     * POST /api/admin/snapshots
+     * Створити знімок (вся БД або вибрані голосування / діапазон часу)
+     */
+    @PostMapping
+    @Operation(summary = "Створити знімок БД")
+    public ResponseEntity<?> createSnapshot(@RequestBody(required = false) SnapshotRequestDTO request) {
+        SnapshotService.SnapshotFilter filter;
+        try {
+            filter = toFilter(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        try {
+            return accepted(snapshotService.startSnapshot(filter));
+        } catch (TaskRejectedException e) {
+            return queueFull();
+        }
+    }
+
+    /**
+     * POST /api/admin/snapshots/restore
+     * Відновити знімок (існуючі рядки пропускаються)
+     */
+    @PostMapping("/restore")
+    @Operation(summary = "Відновити знімок")
+    public ResponseEntity<?> restoreSnapshot(@RequestParam String name) {
+        try {
+            return accepted(snapshotService.startRestore(name));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage(), "name", name));
+        } catch (TaskRejectedException e) {
+            return queueFull();
+        }
+    }
+
+    /**
+     * POST /api/admin/snapshots/benchmark
+     * Порівняти знімок COPY з pg_dump: створення та відновлення
+     */
+    @PostMapping("/benchmark")
+    @Operation(summary = "Порівняти швидкість знімка COPY та pg_dump/pg_restore")
+    public ResponseEntity<?> benchmark() {
+        try {
+            return accepted(snapshotService.startBenchmark());
+        } catch (TaskRejectedException e) {
+            return queueFull();
+        }
+    }
+
+    /**
+     * GET /api/admin/snapshots/jobs/{jobId}
+     * Стан задачі знімка / відновлення / бенчмарку
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Отримати стан задачі знімка")
+    public ResponseEntity<BackupJobStatusDTO> getJobStatus(@PathVariable UUID jobId) {
+        BackupJobStatusDTO job = backupService.getJobStatus(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private SnapshotService.SnapshotFilter toFilter(SnapshotRequestDTO request) {
+        if (request == null) {
+            return SnapshotService.SnapshotFilter.ALL;
+        }
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("from має бути раніше за to");
+        }
+        List<UUID> pollIds = request.getPollIds() == null ? List.of()
+                : request.getPollIds().stream().map(UUID::fromString).toList();
+        return new SnapshotService.SnapshotFilter(pollIds, request.getFrom(), request.getTo());
+    }
+
+    private ResponseEntity<?> accepted(BackupJobStatusDTO job) {
+        return ResponseEntity.status(202)
+                .header("Location", "/api/admin/snapshots/jobs/" + job.getJobId())
+                .body(job);
+    }
+
+    private ResponseEntity<?> queueFull() {
+        return ResponseEntity.status(503)
+                .body(Map.of("error", "Черга фонових задач переповнена, спробуйте пізніше"));
+    }
+}
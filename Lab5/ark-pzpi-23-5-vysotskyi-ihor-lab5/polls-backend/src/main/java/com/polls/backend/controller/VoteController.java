@@ -3,13 +3,17 @@ package com.polls.backend.controller;
 import com.polls.backend.dto.ApiErrorResponseDTO;
 import com.polls.backend.dto.CreateVoteRequestDTO;
 import com.polls.backend.entity.Vote;
+import com.polls.backend.ratelimit.RateLimiter;
+import com.polls.backend.service.PollClosedException;
 import com.polls.backend.service.VoteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.UUID;
@@ -22,6 +26,9 @@ public class VoteController {
     @Autowired
     private VoteService voteService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
     /**
      * Отримати всі голоси
      */
@@ -52,17 +59,35 @@ public class VoteController {
      * - Перевірка на повторне голосування
      * - Перевірка на блокування пристрою
      * - Отримання або створення device fingerprint
+     * ЛІМІТ: IP і відбиток перевіряються до звернень до БД (429 + Retry-After)
      */
     @PostMapping
     @Operation(summary = "Зареєструвати голос")
     public ResponseEntity<?> createVote(
-            @Valid @RequestBody CreateVoteRequestDTO request) {
+            @Valid @RequestBody CreateVoteRequestDTO request,
+            HttpServletRequest servletRequest) {
+
+        RateLimiter.Decision decision =
+                rateLimiter.checkVote(request.getFingerprintId(), servletRequest.getRemoteAddr());
+        if (!decision.allowed()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                    .body(new ApiErrorResponseDTO(
+                            "TOO_MANY_REQUESTS",
+                            "Забагато голосів, спробуйте пізніше",
+                            java.time.LocalDateTime.now(),
+                            "/api/votes",
+                            null,
+                            "RATE_LIMITED"
+                    ));
+        }
 
         try {
             Vote vote = voteService.registerVote(
                     UUID.fromString(request.getPollId()),
                     request.getOptionId() != null ? UUID.fromString(request.getOptionId()) : null,
-                    UUID.fromString(request.getFingerprintId())
+                    UUID.fromString(request.getFingerprintId()),
+                    request.getTextAnswer()
             );
 
             if (vote == null) {
@@ -80,6 +105,16 @@ public class VoteController {
             return ResponseEntity.status(HttpStatus.CREATED).body(vote);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (PollClosedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiErrorResponseDTO(
+                            "CONFLICT",
+                            e.getMessage(),
+                            java.time.LocalDateTime.now(),
+                            "/api/votes",
+                            null,
+                            "POLL_CLOSED"
+                    ));
         }
     }
 
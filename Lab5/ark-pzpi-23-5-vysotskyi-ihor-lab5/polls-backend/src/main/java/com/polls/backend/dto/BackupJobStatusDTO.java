@@ -0,0 +1,33 @@
+package com.polls.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO стану фонової задачі резервного копіювання / відновлення
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BackupJobStatusDTO {
+
+    private String jobId;
+    private String type;  // BACKUP, RESTORE
+    private String state; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String backupName;
+    private String filepath;
+    private String message;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private Long sizeBytes;
+
+    // Метрики задачі: рядки по таблицях, пропускна здатність, порівняння у бенчмарку
+    private Map<String, Object> details;
+}
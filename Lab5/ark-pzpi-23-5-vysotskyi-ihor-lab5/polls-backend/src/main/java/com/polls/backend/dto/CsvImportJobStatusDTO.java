@@ -0,0 +1,49 @@
+package com.polls.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO стану фонового імпорту голосувань з CSV
+ * Прогрес, помилки по рядках та пропускна здатність
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CsvImportJobStatusDTO {
+
+    private String jobId;
+    private String fileName;
+    private String state; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String message;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Прогрес
+    private Long rowsRead;
+    private Long pollsImported;
+    private Long optionsImported;
+    private Long rowsFailed;
+
+    // МАТЕМАТИКА: Пропускна здатність = rowsRead / elapsedSeconds
+    private Long elapsedMs;
+    private Double rowsPerSecond;
+
+    // Помилки по рядках (обмежена кількість)
+    private List<RowError> errors;
+    private Boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private Long line;
+        private String message;
+    }
+}
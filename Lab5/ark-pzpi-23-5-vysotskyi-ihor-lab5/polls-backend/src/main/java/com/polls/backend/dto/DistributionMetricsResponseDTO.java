@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * DTO для повернення статистичних метрик розподілу голосів
  * РЕФАКТОРИНГ: МАТЕМАТИКА показники в окремому DTO
@@ -29,4 +32,14 @@ public class DistributionMetricsResponseDTO {
     // Для контексту
     private String pollId;
     private Long totalVotes;
+
+    // МАТЕМАТИКА: Медіана та 90-й перцентиль оцінок (веб + кіоски)
+    private Double median;
+    private Double p90;
+
+    // Гістограма: [{rating, votes}] для кожної оцінки 1..max
+    private List<Map<String, Object>> histogram;
+
+    // Гістограми кіосків RATING-голосувань: [{iotDeviceId, votes, median, p90}]
+    private List<Map<String, Object>> kiosks;
 }
\ No newline at end of file
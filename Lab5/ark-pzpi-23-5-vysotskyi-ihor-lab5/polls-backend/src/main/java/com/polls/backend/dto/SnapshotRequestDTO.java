@@ -0,0 +1,24 @@
+package com.polls.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO запиту створення знімка БД через COPY
+ * Усі поля необов'язкові: без фільтрів знімається вся БД
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotRequestDTO {
+
+    // Лише ці голосування (та їх варіанти, голоси, пов'язані відбитки)
+    private List<String> pollIds;
+
+    // Часовий діапазон для голосів, IoT-голосів та журналу адміністраторів [from, to)
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
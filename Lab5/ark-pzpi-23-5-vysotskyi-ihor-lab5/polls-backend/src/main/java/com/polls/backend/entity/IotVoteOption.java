@@ -0,0 +1,65 @@
+package com.polls.backend.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Один вибраний варіант голосу кіоску (SINGLE - один рядок, MULTIPLE - кілька)
+ * poll_id продубльовано для індексу (poll_id, option_id): підрахунок без join з iot_votes
+ * Схема: resources/db/V4__iot_vote_options.sql
+ */
+@Entity
+@Table(name = "iot_vote_options",
+        indexes = @Index(name = "idx_iot_vote_options_poll_option", columnList = "poll_id, option_id"))
+@IdClass(IotVoteOption.Key.class)
+public class IotVoteOption {
+    @Id
+    @Column(name = "iot_vote_id")
+    private UUID iotVoteId;
+
+    @Id
+    @Column(name = "option_id")
+    private UUID optionId;
+
+    @Column(name = "poll_id", nullable = false)
+    private UUID pollId;
+
+    // Getters and Setters
+    public UUID getIotVoteId() { return iotVoteId; }
+    public void setIotVoteId(UUID iotVoteId) { this.iotVoteId = iotVoteId; }
+
+    public UUID getOptionId() { return optionId; }
+    public void setOptionId(UUID optionId) { this.optionId = optionId; }
+
+    public UUID getPollId() { return pollId; }
+    public void setPollId(UUID pollId) { this.pollId = pollId; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private UUID iotVoteId;
+        private UUID optionId;
+
+        public Key() {
+        }
+
+        public Key(UUID iotVoteId, UUID optionId) {
+            this.iotVoteId = iotVoteId;
+            this.optionId = optionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(iotVoteId, key.iotVoteId) && Objects.equals(optionId, key.optionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(iotVoteId, optionId);
+        }
+    }
+}
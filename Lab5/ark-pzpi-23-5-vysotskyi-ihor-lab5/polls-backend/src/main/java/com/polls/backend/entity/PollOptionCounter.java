@@ -0,0 +1,81 @@
+package com.polls.backend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Один слот шардованого лічильника голосів за варіант
+ * Голос збільшує випадковий слот (менше конкуренції за рядок), читання - SUM по слотах
+ * Схема: resources/db/V3__poll_option_counters.sql, V5__poll_option_counters_iot.sql
+ */
+@Entity
+@Table(name = "poll_option_counters")
+@IdClass(PollOptionCounter.Key.class)
+public class PollOptionCounter {
+    @Id
+    @Column(name = "poll_id")
+    private UUID pollId;
+
+    // Нульовий uuid - текстові відповіді без варіанту (VoteCounterService.TEXT_ANSWERS)
+    @Id
+    @Column(name = "option_id")
+    private UUID optionId;
+
+    @Id
+    private Short slot;
+
+    @Column(nullable = false)
+    private Long votes;
+
+    // Вибрані варіанти голосів кіосків (iot_vote_options), окремо від веб-голосів
+    @ColumnDefault("0")
+    @Column(name = "iot_votes", nullable = false)
+    private Long iotVotes = 0L;
+
+    // Getters and Setters
+    public UUID getPollId() { return pollId; }
+    public void setPollId(UUID pollId) { this.pollId = pollId; }
+
+    public UUID getOptionId() { return optionId; }
+    public void setOptionId(UUID optionId) { this.optionId = optionId; }
+
+    public Short getSlot() { return slot; }
+    public void setSlot(Short slot) { this.slot = slot; }
+
+    public Long getVotes() { return votes; }
+    public void setVotes(Long votes) { this.votes = votes; }
+
+    public Long getIotVotes() { return iotVotes; }
+    public void setIotVotes(Long iotVotes) { this.iotVotes = iotVotes; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private UUID pollId;
+        private UUID optionId;
+        private Short slot;
+
+        public Key() {
+        }
+
+        public Key(UUID pollId, UUID optionId, Short slot) {
+            this.pollId = pollId;
+            this.optionId = optionId;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(pollId, k.pollId)
+                    && Objects.equals(optionId, k.optionId) && Objects.equals(slot, k.slot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pollId, optionId, slot);
+        }
+    }
+}
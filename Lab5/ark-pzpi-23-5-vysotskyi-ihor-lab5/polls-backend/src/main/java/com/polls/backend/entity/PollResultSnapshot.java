@@ -0,0 +1,52 @@
+package com.polls.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Заморожені результати голосування (CLOSED / ARCHIVED)
+ * statistics та metrics - JSON, записаний один раз при закритті
+ * Схема: resources/db/V2__poll_results_snapshots.sql
+ */
+@Entity
+@Table(name = "poll_results_snapshots")
+public class PollResultSnapshot {
+    @Id
+    @Column(name = "poll_id")
+    private UUID pollId;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Long totalVotes;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String statistics;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String metrics;
+
+    @Column(nullable = false)
+    private LocalDateTime frozenAt;
+
+    // Getters and Setters
+    public UUID getPollId() { return pollId; }
+    public void setPollId(UUID pollId) { this.pollId = pollId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getTotalVotes() { return totalVotes; }
+    public void setTotalVotes(Long totalVotes) { this.totalVotes = totalVotes; }
+
+    public String getStatistics() { return statistics; }
+    public void setStatistics(String statistics) { this.statistics = statistics; }
+
+    public String getMetrics() { return metrics; }
+    public void setMetrics(String metrics) { this.metrics = metrics; }
+
+    public LocalDateTime getFrozenAt() { return frozenAt; }
+    public void setFrozenAt(LocalDateTime frozenAt) { this.frozenAt = frozenAt; }
+}
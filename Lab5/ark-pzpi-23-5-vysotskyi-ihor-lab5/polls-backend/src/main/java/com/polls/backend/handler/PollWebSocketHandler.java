@@ -1,23 +1,48 @@
 package com.polls.backend.handler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polls.backend.jfr.BroadcastEvent;
+import com.polls.backend.entity.Poll;
 import com.polls.backend.service.PollService;
+import com.polls.backend.service.PollTallyCache;
+import com.polls.backend.service.TextTermsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
-public class PollWebSocketHandler extends TextWebSocketHandler {
+public class PollWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
 
     private static final Logger logger = LoggerFactory.getLogger(PollWebSocketHandler.class);
+    private static final String NEW_POLLS_TOPIC = "polls/new";
+
+    /**
+     * Підпротоколи (Sec-WebSocket-Protocol): без підпротоколу або polls.json - усе JSON;
+     * polls.bin - оновлення результатів бінарним кадром ResultsFrameCodec, решта - JSON
+     */
+    public static final String JSON_PROTOCOL = "polls.json";
+    public static final String BINARY_PROTOCOL = "polls.bin";
+    private static final Pattern POLL_TOPIC = Pattern.compile("polls/([0-9a-fA-F-]{36})/(results|status|users|terms)");
     private final ObjectMapper objectMapper;
 
     public PollWebSocketHandler() {
@@ -26,23 +51,100 @@ public class PollWebSocketHandler extends TextWebSocketHandler {
         this.objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
     }
 
+    /**
+     * Тема -> підписники; порожні теми видаляються (compute / computeIfPresent атомарні
+     * щодо паралельної підписки на ту саму тему), тому мапа не росте з часом роботи
+     */
     private final Map<String, Set<WebSocketSession>> pollSubscriptions = new ConcurrentHashMap<>();
 
+    /**
+     * Зворотний індекс: id сесії -> її теми
+     * Відключення коштує O(тем сесії), а не O(усіх тем сервера)
+     */
+    private final Map<String, Set<String>> sessionTopics = new ConcurrentHashMap<>();
+
+    private final Set<WebSocketSession> openSessions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong subscriptionCount = new AtomicLong();
+
+    /**
+     * Сесії для відправки: id -> ConcurrentWebSocketSessionDecorator
+     * Трансляції з різних потоків голосування в одну сесію серіалізуються декоратором
+     * (ReentrantLock, без synchronized - не блокує носій віртуального потоку);
+     * повільний клієнт не тримає відправника довше за send-time-limit, а при переповненні
+     * буфера старі кадри відкидаються (наступне оновлення результатів їх замінює).
+     */
+    private final Map<String, WebSocketSession> outboundSessions = new ConcurrentHashMap<>();
+
+    @Value("${ws.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${ws.send-buffer-limit-bytes:524288}")
+    private int sendBufferLimitBytes;
+
+    @Value("${ws.max-subscriptions-per-session:20}")
+    private int maxSubscriptionsPerSession;
+
     @Autowired
     private PollService pollService;
 
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * МЕТРИКИ: відкриті сесії, активні теми та підписки
+     * Без тегу з темою: pollId у тегах давав би необмежену кардинальність
+     */
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("polls.ws.sessions.open", openSessions, Set::size)
+                .description("Відкриті WebSocket-сесії")
+                .register(meterRegistry);
+        Gauge.builder("polls.ws.topics", pollSubscriptions, Map::size)
+                .description("Теми з хоча б одним підписником")
+                .register(meterRegistry);
+        Gauge.builder("polls.ws.subscriptions", subscriptionCount, AtomicLong::get)
+                .description("Підписки всіх сесій")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(BINARY_PROTOCOL, JSON_PROTOCOL);
+    }
+
+    /**
+     * МЕТРИКИ: polls.ws.connections{protocol, deflate} - які кодування обирають клієнти
+     */
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         logger.info("✅ WebSocket клієнт підключився. Session: {}", session.getId());
+        String protocol = session.getAcceptedProtocol();
+        boolean deflate = session.getExtensions().stream()
+                .anyMatch(extension -> "permessage-deflate".equals(extension.getName()));
+        meterRegistry.counter("polls.ws.connections",
+                "protocol", protocol != null && !protocol.isEmpty() ? protocol : "none",
+                "deflate", String.valueOf(deflate)).increment();
+        WebSocketSession outbound = outbound(session);
+        openSessions.add(outbound);
         Map<String, Object> welcome = new HashMap<>();
         welcome.put("type", "connection_established");
         welcome.put("message", "Ви підключені до WebSocket сервера");
         welcome.put("sessionId", session.getId());
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(welcome)));
+        outbound.sendMessage(new TextMessage(objectMapper.writeValueAsString(welcome)));
+    }
+
+    private WebSocketSession outbound(WebSocketSession session) {
+        return outboundSessions.computeIfAbsent(session.getId(), id -> new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMs, sendBufferLimitBytes,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP));
     }
 
     @Override
-    public void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+    public void handleTextMessage(WebSocketSession rawSession, TextMessage message) throws Exception {
+        WebSocketSession session = outbound(rawSession);
         try {
             String payload = message.getPayload();
             logger.debug("📨 Отримано повідомлення: {}", payload);
@@ -67,22 +169,168 @@ public class PollWebSocketHandler extends TextWebSocketHandler {
     }
 
     private void handleSubscribe(WebSocketSession session, String topic) throws IOException {
+        String invalid = validateTopic(topic);
+        if (invalid != null) {
+            logger.debug("⚠️ Відхилено підписку на {}: {}", topic, invalid);
+            sendError(session, invalid);
+            return;
+        }
+
+        // Повідомлення однієї сесії обробляються послідовно: перевірка ліміту без гонки
+        Set<String> topics = sessionTopics.computeIfAbsent(session.getId(), id -> ConcurrentHashMap.newKeySet());
+        if (!topics.contains(topic) && topics.size() >= maxSubscriptionsPerSession) {
+            sendError(session, "Перевищено ліміт підписок на сесію: " + maxSubscriptionsPerSession);
+            return;
+        }
+
         logger.info("🔔 Підписка на тему: {} (Session: {})", topic, session.getId());
-        pollSubscriptions.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(session);
+        topics.add(topic);
+        addSubscriber(topic, session);
 
         Map<String, Object> response = new HashMap<>();
         response.put("type", "subscription_confirmed");
         response.put("topic", topic);
         response.put("message", "Ви підписані на: " + topic);
-        response.put("activeSubscribers", pollSubscriptions.get(topic).size());
+        response.put("activeSubscribers", pollSubscriptions.getOrDefault(topic, Set.of()).size());
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+
+        sendResultsSnapshot(session, topic);
+    }
+
+    /**
+     * Допустимі теми: polls/new та polls/{id}/results|status|users існуючого голосування,
+     * polls/{id}/terms - лише OPEN
+     * (Poll читається з кешу другого рівня, повторні підписки не йдуть у БД)
+     *
+     * @return null, якщо тема допустима, інакше текст помилки
+     */
+    private String validateTopic(String topic) {
+        if (NEW_POLLS_TOPIC.equals(topic)) {
+            return null;
+        }
+        Matcher matcher = topic != null ? POLL_TOPIC.matcher(topic) : null;
+        UUID pollId = matcher != null ? pollIdOf(matcher) : null;
+        if (pollId == null) {
+            return "Невідома тема: " + topic;
+        }
+        Poll poll = pollService.getPollById(pollId);
+        if (poll == null) {
+            return "Голосування не знайдено: " + pollId;
+        }
+        if ("terms".equals(matcher.group(2)) && !TextTermsService.OPEN.equals(poll.getType())) {
+            return "Слова рахуються лише для OPEN-голосувань";
+        }
+        return null;
+    }
+
+    private static UUID pollIdOf(Matcher matcher) {
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(matcher.group(1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void addSubscriber(String topic, WebSocketSession session) {
+        pollSubscriptions.compute(topic, (key, subscribers) -> {
+            Set<WebSocketSession> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            if (set.add(session)) {
+                subscriptionCount.incrementAndGet();
+            }
+            return set;
+        });
+    }
+
+    /**
+     * Прибрати підписника; остання підписка видаляє саму тему
+     */
+    private void removeSubscriber(String topic, WebSocketSession session) {
+        pollSubscriptions.computeIfPresent(topic, (key, subscribers) -> {
+            if (subscribers.remove(session)) {
+                subscriptionCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void unsubscribe(WebSocketSession session, String topic) {
+        Set<String> topics = sessionTopics.get(session.getId());
+        if (topics != null) {
+            topics.remove(topic);
+        }
+        removeSubscriber(topic, session);
+    }
+
+    /**
+     * Поточні результати першим кадром після підтвердження підписки на polls/{id}/results
+     * (клієнту не потрібен окремий GET /statistics при відкритті сторінки)
+     *
+     * Кадр серіалізується один раз на версію підрахунку і зберігається в PollTallyCache
+     * поруч із відповідями REST: сто підписок на ту саму версію - одне обчислення.
+     * Сесія вже в підписниках, тому оновлення після знімка не губляться; поле version
+     * дозволяє клієнту порівняти знімок з оновленням, що прийшло раніше.
+     */
+    private void sendResultsSnapshot(WebSocketSession session, String topic) throws IOException {
+        Matcher matcher = POLL_TOPIC.matcher(topic);
+        UUID pollId = pollIdOf(matcher);
+        if (pollId == null || !"results".equals(matcher.group(2))) {
+            return;
+        }
+
+        String outcome;
+        try {
+            // Версію читаємо до обчислення (див. PollTallyCache.body)
+            long version = pollTallyCache.version(pollId);
+            byte[] frame = pollTallyCache.body(pollId, "ws-snapshot", version,
+                    () -> snapshotFrame(pollId, topic, version));
+            if (frame == null) {
+                outcome = "not_found";
+            } else if (session.isOpen()) {
+                session.sendMessage(new TextMessage(frame));
+                outcome = "sent";
+            } else {
+                outcome = "closed";
+            }
+        } catch (RuntimeException e) {
+            logger.error("❌ Не вдалося надіслати знімок результатів {}", topic, e);
+            outcome = "error";
+        }
+        Counter.builder("polls.ws.subscribe.snapshot")
+                .description("Знімок результатів при підписці")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private byte[] snapshotFrame(UUID pollId, String topic, long version) {
+        Map<String, Object> stats = pollService.getPollStatistics(pollId);
+        if (stats == null) {
+            return null;
+        }
+        // Той самий формат, що й broadcastPollResults: клієнт обробляє його так само
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("type", "poll_results_update");
+        snapshot.put("topic", topic);
+        snapshot.put("data", stats);
+        snapshot.put("snapshot", true);
+        snapshot.put("version", version);
+        // Для бінарних оновлень: порядок варіантів, на який посилаються їх індекси
+        snapshot.put("layout", ResultsFrameCodec.layout(stats));
+        snapshot.put("timestamp", System.currentTimeMillis());
+        try {
+            return objectMapper.writeValueAsBytes(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private void handleUnsubscribe(WebSocketSession session, String topic) throws IOException {
         logger.info("🔕 Відписка від теми: {} (Session: {})", topic, session.getId());
-        Set<WebSocketSession> subscribers = pollSubscriptions.get(topic);
-        if (subscribers != null) {
-            subscribers.remove(session);
+        if (topic != null) {
+            unsubscribe(session, topic);
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -99,41 +347,123 @@ public class PollWebSocketHandler extends TextWebSocketHandler {
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(pong)));
     }
 
+    /**
+     * Чи є на цьому вузлі підписники теми (порожні теми видаляються)
+     */
+    public boolean hasSubscribers(String topic) {
+        return pollSubscriptions.containsKey(topic);
+    }
+
     // ⭐ УНИВЕРСАЛЬНЫЙ МЕТОД - для любой трансляции
+    // МЕТРИКИ: polls.ws.broadcast{kind, outcome}, отримувачі та розмір кадру
+    // JFR: polls.Broadcast з темою, кількістю отримувачів і розміром кадру
     public void broadcast(String topic, Map<String, Object> data) {
-        System.out.println("🔥 broadcast() called for topic: " + topic);
-        System.out.println("🔥 All subscriptions keys: " + pollSubscriptions.keySet());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        BroadcastEvent event = new BroadcastEvent();
+        event.topic = topic;
+        event.begin();
+        // Тег - тип теми (results / status / users / terms / new), а не pollId: обмежена кардинальність
+        String kind = topic.substring(topic.lastIndexOf('/') + 1);
 
         Set<WebSocketSession> subscribers = pollSubscriptions.get(topic);
 
         if (subscribers == null || subscribers.isEmpty()) {
-            System.out.println("⚠️ Немає підписаних на тему: " + topic);
-            logger.warn("⚠️ Немає підписаних на тему: {}", topic);
+            // Звичайна ситуація (ніхто не дивиться результати), не попередження
+            logger.debug("⚠️ Немає підписаних на тему: {}", topic);
+            recordBroadcast(sample, event, kind, "no_subscribers");
             return;
         }
 
-        System.out.println("✅ Found " + subscribers.size() + " subscribers for topic: " + topic);
+        logger.debug("✅ {} підписників на тему {}", subscribers.size(), topic);
 
         try {
-            String message = objectMapper.writeValueAsString(data);
+            byte[] message = objectMapper.writeValueAsBytes(data);
+            // Бінарний кадр - лише якщо є сесія polls.bin, один раз на трансляцію
+            byte[] binary = null;
+            int recipients = 0;
+            int binaryRecipients = 0;
 
             for (WebSocketSession session : new HashSet<>(subscribers)) {
                 if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
-                    System.out.println("📤 Відправлено " + topic + " для session: " + session.getId());
-                    logger.info("📤 Відправлено {}: {}", topic, session.getId());
+                    if (BINARY_PROTOCOL.equals(session.getAcceptedProtocol())) {
+                        if (binary == null) {
+                            binary = binaryFrame(topic, data);
+                        }
+                        if (binary.length > 0) {
+                            session.sendMessage(new BinaryMessage(binary));
+                            binaryRecipients++;
+                        } else {
+                            session.sendMessage(new TextMessage(message));
+                        }
+                    } else {
+                        session.sendMessage(new TextMessage(message));
+                    }
+                    recipients++;
+                    logger.trace("📤 Відправлено {}: {}", topic, session.getId());
                 } else {
-                    System.out.println("⚠️ Session closed: " + session.getId());
-                    subscribers.remove(session);
+                    logger.debug("⚠️ Сесія закрита: {}", session.getId());
+                    unsubscribe(session, topic);
                 }
             }
+
+            DistributionSummary.builder("polls.ws.broadcast.recipients")
+                    .tag("kind", kind)
+                    .register(meterRegistry)
+                    .record(recipients);
+            if (recipients > binaryRecipients) {
+                recordFrameSize(kind, "json", message.length);
+            }
+            if (binaryRecipients > 0) {
+                recordFrameSize(kind, "binary", binary.length);
+            }
+            event.subscribers = recipients;
+            event.bytes = message.length;
+            recordBroadcast(sample, event, kind, "sent");
         } catch (Exception e) {
-            System.err.println("❌ Помилка при трансляції на " + topic + ": " + e.getMessage());
-            e.printStackTrace();
-            logger.error("❌ Помилка при трансляції на {}: {}", topic, e.getMessage());
+            logger.error("❌ Помилка при трансляції на {}", topic, e);
+            recordBroadcast(sample, event, kind, "error");
         }
     }
 
+    /**
+     * Бінарний кадр для polls/{id}/results; порожній масив - тема / тип без бінарного
+     * кодування (такі кадри бінарним сесіям йдуть JSON-текстом)
+     */
+    @SuppressWarnings("unchecked")
+    private static byte[] binaryFrame(String topic, Map<String, Object> data) {
+        Matcher matcher = POLL_TOPIC.matcher(topic);
+        UUID pollId = pollIdOf(matcher);
+        if (pollId == null || !"results".equals(matcher.group(2))
+                || !"poll_results_update".equals(data.get("type"))
+                || !(data.get("data") instanceof Map<?, ?> stats)) {
+            return new byte[0];
+        }
+        long timestamp = data.get("timestamp") instanceof Number n ? n.longValue() : System.currentTimeMillis();
+        return ResultsFrameCodec.encode(pollId, timestamp, (Map<String, Object>) stats);
+    }
+
+    private void recordFrameSize(String kind, String encoding, int bytes) {
+        DistributionSummary.builder("polls.ws.broadcast.frame.size")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .tag("encoding", encoding)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private void recordBroadcast(Timer.Sample sample, BroadcastEvent event, String kind, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.commit();
+        }
+        sample.stop(Timer.builder("polls.ws.broadcast")
+                .description("Розсилка кадру всім підписникам теми")
+                .tag("kind", kind)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
     // ⭐ СПЕЦИАЛИЗИРОВАННЫЙ МЕТОД - для результатів голосування
     public void broadcastPollResults(String pollId, Map<String, Object> stats) {
         String topic = "polls/" + pollId + "/results";
@@ -159,7 +489,14 @@ public class PollWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
         logger.info("❌ WebSocket клієнт відключився. Session: {}", session.getId());
-        pollSubscriptions.values().forEach(set -> set.remove(session));
+        WebSocketSession outbound = outboundSessions.remove(session.getId());
+        WebSocketSession subscriber = outbound != null ? outbound : session;
+        openSessions.remove(subscriber);
+        // Лише теми цієї сесії (зворотний індекс)
+        Set<String> topics = sessionTopics.remove(session.getId());
+        if (topics != null) {
+            topics.forEach(topic -> removeSubscriber(topic, subscriber));
+        }
     }
 
     @Override
@@ -0,0 +1,122 @@
+package com.polls.backend.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Бінарний кадр poll_results_update для підпротоколу polls.bin
+ *
+ * Замість JSON з повторюваними ключами, рядковими UUID і тексту варіантів - лише
+ * числа в порядку варіантів зі знімка при підписці (кадр snapshot лишається JSON:
+ * тексти варіантів та їх id клієнт отримує один раз).
+ *
+ * Формат (big-endian, varint - беззнаковий LEB128):
+ *   u8      тип кадру (1 - оновлення результатів)
+ *   16 байт pollId (старші, молодші 64 біти)
+ *   varint  timestamp, мс
+ *   u32     layout - хеш id варіантів у порядку; не збігся зі знімком - перепідписатися
+ *   varint  totalVotes
+ *   varint  кількість варіантів n
+ *   n x varint голоси за варіантом
+ */
+public final class ResultsFrameCodec {
+
+    public static final byte RESULTS_UPDATE = 1;
+
+    private ResultsFrameCodec() {
+    }
+
+    public record Frame(UUID pollId, long timestamp, int layout, long totalVotes, long[] votes) {}
+
+    /**
+     * Закодувати статистику PollService.getPollStatistics
+     */
+    public static byte[] encode(UUID pollId, long timestamp, Map<String, Object> stats) {
+        List<?> options = (List<?>) stats.get("options");
+        int count = options != null ? options.size() : 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + count * 3);
+
+        out.write(RESULTS_UPDATE);
+        writeLong(out, pollId.getMostSignificantBits());
+        writeLong(out, pollId.getLeastSignificantBits());
+        writeVarint(out, timestamp);
+        writeInt(out, layout(stats));
+        writeVarint(out, number(stats.get("totalVotes")));
+        writeVarint(out, count);
+        for (int i = 0; i < count; i++) {
+            writeVarint(out, number(((Map<?, ?>) options.get(i)).get("votes")));
+        }
+        return out.toByteArray();
+    }
+
+    public static Frame decode(byte[] frame) {
+        ByteBuffer in = ByteBuffer.wrap(frame);
+        if (in.get() != RESULTS_UPDATE) {
+            throw new IllegalArgumentException("Невідомий тип кадру: " + frame[0]);
+        }
+        UUID pollId = new UUID(in.getLong(), in.getLong());
+        long timestamp = readVarint(in);
+        int layout = in.getInt();
+        long total = readVarint(in);
+        long[] votes = new long[(int) readVarint(in)];
+        for (int i = 0; i < votes.length; i++) {
+            votes[i] = readVarint(in);
+        }
+        return new Frame(pollId, timestamp, layout, total, votes);
+    }
+
+    /**
+     * Хеш id варіантів у порядку статистики (UUID або рядок - однаковий результат:
+     * заморожена статистика приходить з JSON, де id - рядки)
+     */
+    public static int layout(Map<String, Object> stats) {
+        int hash = 1;
+        List<?> options = (List<?>) stats.get("options");
+        if (options != null) {
+            for (Object option : options) {
+                hash = 31 * hash + String.valueOf(((Map<?, ?>) option).get("optionId")).hashCode();
+            }
+        }
+        return hash;
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+    }
+
+    // МАТЕМАТИКА: 7 біт на байт, старший біт - "далі ще байт"; 1000 голосів - 2 байти
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Завеликий varint");
+    }
+}
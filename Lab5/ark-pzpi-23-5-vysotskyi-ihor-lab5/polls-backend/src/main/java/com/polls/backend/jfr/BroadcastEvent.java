@@ -0,0 +1,33 @@
+package com.polls.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR: розсилка одного кадру підписникам теми
+ */
+@Name("polls.Broadcast")
+@Label("WebSocket Broadcast")
+@Category({"Polls", "WebSocket"})
+@Description("PollWebSocketHandler.broadcast: серіалізація та відправка всім підписникам")
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+    @Label("Topic")
+    public String topic;
+
+    @Label("Subscribers")
+    public int subscribers;
+
+    @Label("Frame Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,155 @@
+package com.polls.backend.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Зведення подій polls.* з файлу .jfr: найповільніші етапи
+ *
+ * Групи: VoteStage за етапом, Broadcast за типом теми (results / status / ...),
+ * Job за kind/type, jdk.VirtualThreadPinned за верхнім кадром застосунку.
+ * Для кожної групи - кількість, p50 / p99 / max (мс) і сумарний час; групи
+ * відсортовані за сумарним часом, окремо - top N найповільніших подій.
+ *
+ * Запуск без сервера: java -cp target/classes com.polls.backend.jfr.JfrAnalyzer file.jfr [top]
+ */
+public final class JfrAnalyzer {
+
+    private JfrAnalyzer() {
+    }
+
+    private record Sample(String group, long nanos, String detail) {}
+
+    public static Map<String, Object> summarize(Path file, int top) throws IOException {
+        Map<String, List<Long>> durations = new HashMap<>();
+        PriorityQueue<Sample> slowest = new PriorityQueue<>(Comparator.comparingLong(Sample::nanos));
+        long events = 0;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String group = group(event);
+                if (group == null) {
+                    continue;
+                }
+                long nanos = event.getDuration().toNanos();
+                durations.computeIfAbsent(group, g -> new ArrayList<>()).add(nanos);
+                events++;
+
+                // Мін-купа розміру top: залишаються найповільніші
+                slowest.add(new Sample(group, nanos, detail(event)));
+                if (slowest.size() > top) {
+                    slowest.poll();
+                }
+            }
+        }
+
+        List<Map<String, Object>> groups = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : durations.entrySet()) {
+            long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            long total = Arrays.stream(sorted).sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("group", entry.getKey());
+            stats.put("count", sorted.length);
+            stats.put("p50Ms", millis(percentile(sorted, 0.50)));
+            stats.put("p99Ms", millis(percentile(sorted, 0.99)));
+            stats.put("maxMs", millis(sorted[sorted.length - 1]));
+            stats.put("totalMs", millis(total));
+            groups.add(stats);
+        }
+        groups.sort(Comparator.comparingDouble((Map<String, Object> g) -> (Double) g.get("totalMs")).reversed());
+
+        List<Map<String, Object>> slowestEvents = new ArrayList<>();
+        List<Sample> ordered = new ArrayList<>(slowest);
+        ordered.sort(Comparator.comparingLong(Sample::nanos).reversed());
+        for (Sample sample : ordered) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("group", sample.group());
+            item.put("durationMs", millis(sample.nanos()));
+            item.put("detail", sample.detail());
+            slowestEvents.add(item);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("file", file.getFileName().toString());
+        summary.put("events", events);
+        summary.put("groups", groups);
+        summary.put("slowest", slowestEvents);
+        return summary;
+    }
+
+    private static String group(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case "polls.VoteStage" -> "vote." + event.getString("stage");
+            case "polls.Broadcast" -> {
+                String topic = event.getString("topic");
+                yield "broadcast." + (topic != null ? topic.substring(topic.lastIndexOf('/') + 1) : "unknown");
+            }
+            case "polls.Job" -> event.getString("kind") + "." + event.getString("type");
+            case "jdk.VirtualThreadPinned" -> "pinned." + pinnedFrame(event);
+            default -> null;
+        };
+    }
+
+    private static String detail(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case "polls.VoteStage" -> "poll=" + event.getString("pollId") + " outcome=" + event.getString("outcome");
+            case "polls.Broadcast" -> event.getString("topic") + " subscribers=" + event.getInt("subscribers")
+                    + " bytes=" + event.getLong("bytes") + " outcome=" + event.getString("outcome");
+            case "polls.Job" -> "outcome=" + event.getString("outcome") + " size=" + event.getLong("sizeBytes");
+            default -> "thread=" + (event.getThread() != null ? event.getThread().getJavaName() : "?");
+        };
+    }
+
+    /**
+     * Перший кадр com.polls.backend у стеку: де саме віртуальний потік тримав носій
+     */
+    private static String pinnedFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .filter(f -> f.getMethod().getType().getName().startsWith("com.polls.backend"))
+                .findFirst()
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName())
+                .orElse("external");
+    }
+
+    // МАТЕМАТИКА: nearest-rank percentile
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Використання: JfrAnalyzer <file.jfr> [top]");
+            System.exit(1);
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Map<String, Object> summary = summarize(Paths.get(args[0]), top);
+
+        System.out.printf("%s: %d подій polls.*%n%n", summary.get("file"), (Long) summary.get("events"));
+        System.out.printf("%-32s %8s %10s %10s %10s %12s%n", "GROUP", "COUNT", "P50 ms", "P99 ms", "MAX ms", "TOTAL ms");
+        for (Object o : (List<?>) summary.get("groups")) {
+            Map<?, ?> g = (Map<?, ?>) o;
+            System.out.printf("%-32s %8d %10.3f %10.3f %10.3f %12.3f%n",
+                    g.get("group"), g.get("count"), g.get("p50Ms"), g.get("p99Ms"), g.get("maxMs"), g.get("totalMs"));
+        }
+        System.out.printf("%nНайповільніші події:%n");
+        for (Object o : (List<?>) summary.get("slowest")) {
+            Map<?, ?> s = (Map<?, ?>) o;
+            System.out.printf("%10.3f ms  %-28s %s%n", s.get("durationMs"), s.get("group"), s.get("detail"));
+        }
+    }
+}
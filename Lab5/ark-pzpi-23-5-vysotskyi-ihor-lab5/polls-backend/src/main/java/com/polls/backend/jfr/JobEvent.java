@@ -0,0 +1,33 @@
+package com.polls.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR: експорт (CSV / PDF) або фонова задача копіювання / знімка / відновлення
+ */
+@Name("polls.Job")
+@Label("Export / Backup Job")
+@Category({"Polls", "Jobs"})
+@Description("ExportService та задачі BackupJobRegistry")
+@StackTrace(false)
+public class JobEvent extends Event {
+
+    @Label("Kind")
+    public String kind;   // export, backup
+
+    @Label("Type")
+    public String type;   // poll_csv, poll_pdf, BACKUP, SNAPSHOT, ...
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Size")
+    @DataAmount
+    public long sizeBytes;
+}
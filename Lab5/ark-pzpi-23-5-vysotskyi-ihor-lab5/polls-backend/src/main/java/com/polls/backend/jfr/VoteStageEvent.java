@@ -0,0 +1,46 @@
+package com.polls.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR: етап реєстрації голосу
+ * Етапи: dedupe_check, block_check, poll_lookup, insert, stats_recompute, broadcast
+ * Тривалість події = тривалість етапу
+ */
+@Name("polls.VoteStage")
+@Label("Vote Stage")
+@Category({"Polls", "Votes"})
+@Description("Один етап VoteService.registerVote")
+@StackTrace(false)
+public class VoteStageEvent extends Event {
+
+    @Label("Poll ID")
+    public String pollId;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Outcome")
+    public String outcome;
+
+    public static VoteStageEvent begin(Object pollId, String stage) {
+        VoteStageEvent event = new VoteStageEvent();
+        event.pollId = String.valueOf(pollId);
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.polls.backend.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Вибіркове debug-трасування голосів
+ *
+ * Рівень com.polls.backend лишається INFO, але для кожного sampleRate-го голосу
+ * (за voteId у MDC) DEBUG-записи пакета loggerPrefix проходять повністю: видно весь
+ * шлях голосу від перевірок до трансляції, без debug-потоку для всіх запитів.
+ * Для інших подій фільтр нейтральний і рішення приймає рівень логера.
+ *
+ * Налаштування в logback-spring.xml; sampleRate = 0 вимикає вибірку.
+ */
+public class SampledTraceFilter extends TurboFilter {
+
+    private int sampleRate = 100;
+    private String loggerPrefix = "com.polls.backend";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Викликається для кожного запису, тому спершу найдешевші перевірки
+        if (level != Level.DEBUG || sampleRate <= 0 || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return VoteCorrelation.isSampled(MDC.get(VoteCorrelation.MDC_KEY), sampleRate)
+                ? FilterReply.ACCEPT
+                : FilterReply.NEUTRAL;
+    }
+
+    public void setSampleRate(int sampleRate) { this.sampleRate = sampleRate; }
+    public int getSampleRate() { return sampleRate; }
+
+    public void setLoggerPrefix(String loggerPrefix) { this.loggerPrefix = loggerPrefix; }
+    public String getLoggerPrefix() { return loggerPrefix; }
+}
@@ -0,0 +1,55 @@
+package com.polls.backend.logging;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Correlation id голосу в MDC (ключ voteId)
+ *
+ * Відкривається на вході registerVote / registerIotVote і діє до кінця виклику:
+ * усі записи VoteService, PollService, трансляції WebSocket в тому ж потоці
+ * мають однаковий voteId (%X{voteId} у logback-spring.xml).
+ * Той самий id вирішує, чи потрапляє голос у вибірку debug (SampledTraceFilter).
+ */
+public final class VoteCorrelation {
+
+    public static final String MDC_KEY = "voteId";
+
+    /**
+     * Закривається у finally виклику, що відкрив (close() без checked-винятку)
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Scope NOOP = () -> { };
+
+    private VoteCorrelation() {
+    }
+
+    /**
+     * Новий id, якщо його ще немає; вкладений виклик залишає зовнішній id
+     * Без UUID.randomUUID(): SecureRandom на гарячому шляху не потрібен
+     */
+    public static Scope open() {
+        if (MDC.get(MDC_KEY) != null) {
+            return NOOP;
+        }
+        String id = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        MDC.put(MDC_KEY, id);
+        return () -> MDC.remove(MDC_KEY);
+    }
+
+    /**
+     * Детермінована вибірка 1 з sampleRate за id: або весь голос, або нічого
+     */
+    public static boolean isSampled(String id, int sampleRate) {
+        if (id == null || sampleRate <= 0) {
+            return false;
+        }
+        return sampleRate == 1 || (id.hashCode() & Integer.MAX_VALUE) % sampleRate == 0;
+    }
+}
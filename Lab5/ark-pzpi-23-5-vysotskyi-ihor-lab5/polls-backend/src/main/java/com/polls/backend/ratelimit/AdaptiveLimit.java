@@ -0,0 +1,113 @@
+package com.polls.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ліміт одночасних запитів, що підлаштовується під затримку (алгоритм Vegas)
+ *
+ * МАТЕМАТИКА: rttNoLoad - мінімальний час обробки за останні 1-2 вікна (затримка без
+ * черги), rtt - середній час за раунд з limit відповідей. Оцінка черги перед БД:
+ *   queue = limit * (1 - rttNoLoad / rtt)
+ * queue <= 3*log10(limit) - черги майже немає, ліміт росте на log10(limit);
+ * queue > 6*log10(limit) - запити чекають на з'єднання, ліміт зменшується на log10(limit).
+ * Рішення приймається раз на раунд: інакше ліміт змінюється швидше, ніж rtt встигає
+ * відреагувати, і коливається.
+ * Так ліміт сходиться до реальної пропускної здатності БД плюс невелика черга, а при
+ * сплеску затримки NeonDB швидко падає до min. Вікно мінімуму дає базовій затримці
+ * оновитися, якщо БД стала повільнішою назавжди.
+ *
+ * min == max - фіксований ліміт без адаптації (admin, export).
+ */
+final class AdaptiveLimit {
+
+    private final int min;
+    private final int max;
+    private final long windowNanos;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+    private long windowMin = Long.MAX_VALUE;
+    private long previousWindowMin = Long.MAX_VALUE;
+    private long windowStart = System.nanoTime();
+    private long roundSum;
+    private int roundCount;
+    private int roundMaxInflight;
+
+    AdaptiveLimit(int initial, int min, int max, long windowNanos) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("Некоректний ліміт: min=" + min + ", max=" + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.windowNanos = windowNanos;
+        this.limit = Math.clamp(initial, min, max);
+    }
+
+    static AdaptiveLimit fixed(int limit) {
+        return new AdaptiveLimit(limit, limit, limit, 0);
+    }
+
+    /**
+     * Зайняти місце; false - ліміт вичерпано, запит відхиляється без очікування
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Звільнити місце
+     *
+     * @param rttNanos час обробки запиту; &lt;= 0 - не враховувати (запит відхилено до БД)
+     */
+    void release(long rttNanos) {
+        int before = inflight.getAndDecrement();
+        if (rttNanos > 0 && min < max) {
+            update(rttNanos, before, System.nanoTime());
+        }
+    }
+
+    private synchronized void update(long sample, int inflightBefore, long now) {
+        if (now - windowStart > windowNanos) {
+            previousWindowMin = windowMin;
+            windowMin = Long.MAX_VALUE;
+            windowStart = now;
+        }
+        windowMin = Math.min(windowMin, sample);
+        roundSum += sample;
+        roundMaxInflight = Math.max(roundMaxInflight, inflightBefore);
+        // Рішення раз на раунд (limit відповідей): ефект попереднього вже видно в rtt
+        if (++roundCount < limit) {
+            return;
+        }
+        double rtt = (double) roundSum / roundCount;
+        boolean appLimited = roundMaxInflight * 2 < limit;
+        roundSum = 0;
+        roundCount = 0;
+        roundMaxInflight = 0;
+
+        // Ліміт використано менше ніж наполовину - даних про перевантаження немає
+        if (appLimited) {
+            return;
+        }
+        double rttNoLoad = Math.min(windowMin, previousWindowMin);
+        double log = Math.max(1.0, Math.log10(limit));
+        double queue = limit * (1 - rttNoLoad / rtt);
+        if (queue <= 3 * log) {
+            limit = Math.min(max, limit + log);
+        } else if (queue > 6 * log) {
+            limit = Math.max(min, limit - log);
+        }
+    }
+
+    int getLimit() { return (int) limit; }
+
+    int getInflight() { return inflight.get(); }
+}
@@ -0,0 +1,233 @@
+package com.polls.backend.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polls.backend.dto.ApiErrorResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Скидання навантаження: окремі ліміти одночасних запитів для голосів, адмінки та експорту
+ *
+ * Коли NeonDB сповільнюється, потоки голосування накопичуються в VoteService.registerVote,
+ * займають усі потоки Tomcat і пул з'єднань - і адмінка теж перестає відповідати.
+ * Ліміт голосів (POST /api/votes, POST /api/iot/votes) адаптивний (AdaptiveLimit): час
+ * обробки голосу - це здебільшого час БД, і при його зростанні ліміт зменшується.
+ * Адмінка та експорт мають фіксовані ліміти, тому флуд голосів їх не витісняє, а
+ * важкий експорт не забирає всі з'єднання. Понад ліміт - одразу 503 + Retry-After.
+ *
+ * Потоковий експорт (StreamingResponseBody) звільняє місце після завершення async-запиту.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final String VOTES = "votes";
+    private static final String ADMIN = "admin";
+    private static final String EXPORT = "export";
+
+    @Value("${polls.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${polls.concurrency.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${polls.concurrency.votes.initial:20}")
+    private int votesInitial;
+
+    @Value("${polls.concurrency.votes.min:10}")
+    private int votesMin;
+
+    @Value("${polls.concurrency.votes.max:200}")
+    private int votesMax;
+
+    @Value("${polls.concurrency.votes.window-seconds:30}")
+    private long votesWindowSeconds;
+
+    @Value("${polls.concurrency.admin.max:10}")
+    private int adminMax;
+
+    @Value("${polls.concurrency.export.max:2}")
+    private int exportMax;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Bulkhead votes;
+    private Bulkhead admin;
+    private Bulkhead export;
+
+    /**
+     * Ліміт і його лічильники рішень
+     */
+    private final class Bulkhead {
+        final String name;
+        final AdaptiveLimit limit;
+        final Counter accepted;
+        final Counter rejected;
+
+        Bulkhead(String name, AdaptiveLimit limit) {
+            this.name = name;
+            this.limit = limit;
+            this.accepted = decisions(name, "accepted");
+            this.rejected = decisions(name, "rejected");
+            Gauge.builder("polls.concurrency.limit", limit, AdaptiveLimit::getLimit)
+                    .description("Поточний ліміт одночасних запитів")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge.builder("polls.concurrency.inflight", limit, AdaptiveLimit::getInflight)
+                    .description("Запити, що виконуються")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        private Counter decisions(String name, String outcome) {
+            return Counter.builder("polls.concurrency.decisions")
+                    .description("Рішення ліміту одночасних запитів")
+                    .tag("limit", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            logger.warn("⚠️ Ліміти одночасних запитів вимкнено (polls.concurrency.enabled=false)");
+            return;
+        }
+        votes = new Bulkhead(VOTES, new AdaptiveLimit(votesInitial, votesMin, votesMax,
+                TimeUnit.SECONDS.toNanos(votesWindowSeconds)));
+        admin = new Bulkhead(ADMIN, AdaptiveLimit.fixed(adminMax));
+        export = new Bulkhead(EXPORT, AdaptiveLimit.fixed(exportMax));
+        logger.info("🚦 Ліміти одночасних запитів: votes {}..{} (старт {}), admin {}, export {}",
+                votesMin, votesMax, votesInitial, adminMax, exportMax);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Bulkhead bulkhead = classify(request);
+        if (!bulkhead.limit.tryAcquire()) {
+            bulkhead.rejected.increment();
+            logger.debug("🚫 {} {}: ліміт {} ({}) вичерпано", request.getMethod(), request.getRequestURI(),
+                    bulkhead.name, bulkhead.limit.getLimit());
+            reject(request, response);
+            return;
+        }
+        bulkhead.accepted.increment();
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkhead.limit));
+            } else {
+                bulkhead.limit.release(sample(response, start));
+            }
+        }
+    }
+
+    /**
+     * Голоси, адмінка, експорт; null - запит без ліміту
+     */
+    private Bulkhead classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if ("POST".equals(request.getMethod())
+                && (uri.equals("/api/votes") || uri.equals("/api/iot/votes"))) {
+            return votes;
+        }
+        if (uri.contains("/export/")) {
+            return export;
+        }
+        if (uri.startsWith("/api/admin")) {
+            return admin;
+        }
+        return null;
+    }
+
+    /**
+     * Час обробки для адаптації; 429 (RateLimiter) відхилено до БД - не вимір затримки
+     */
+    private static long sample(HttpServletResponse response, long start) {
+        return response.getStatus() == HttpStatus.TOO_MANY_REQUESTS.value() ? 0 : System.nanoTime() - start;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrorResponseDTO(
+                "SERVICE_UNAVAILABLE",
+                "Сервер перевантажено, спробуйте пізніше",
+                LocalDateTime.now(),
+                request.getRequestURI(),
+                null,
+                "OVERLOADED"
+        ));
+    }
+
+    /**
+     * Звільнення місця після завершення async-запиту (рівно один раз)
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final AdaptiveLimit limit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnComplete(AdaptiveLimit limit) {
+            this.limit = limit;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(0);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) { release(); }
+
+        @Override
+        public void onTimeout(AsyncEvent event) { release(); }
+
+        @Override
+        public void onError(AsyncEvent event) { release(); }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) { }
+    }
+}
@@ -0,0 +1,269 @@
+package com.polls.backend.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Допуск голосів до БД: token bucket на ключ (відбиток, IP, кіоск) у пам'яті вузла
+ *
+ * Перевірка - до будь-якого запиту в БД: бот-флуд відсікається в контролері, а не
+ * після findById / findByPollAndFingerprint. Ліміт задається як "N/період": кошик на
+ * N токенів, що повністю наповнюється за період (polls.ratelimit.*).
+ *
+ * Мапа кошиків обмежена polls.ratelimit.max-keys на кожен ліміт. Повні кошики
+ * видаляються фоном - це нічого не змінює (новий кошик теж повний). Новий ключ у
+ * заповненій мапі витісняє повний кошик серед перших EVICT_PROBES, без повного
+ * проходу в потоці запиту; якщо такого немає - відхиляється (outcome=overflow), а
+ * прибирання ставиться у фоновий ratelimit-sweep: захист БД важливіший за вільний
+ * прохід під час атаки з тисяч ключів.
+ *
+ * Відбиток - ключ від клієнта, тому перевіряється після IP: запит, відхилений за IP,
+ * не додає підроблений ключ у мапу.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    public static final String VOTES = "votes";
+    public static final String IOT_VOTES = "iot-votes";
+
+    // Скільки ключів переглядає новий ключ у заповненій мапі, шукаючи повний кошик
+    private static final int EVICT_PROBES = 8;
+
+    /**
+     * Рішення: allowed або вимір, що відхилив запит, і коли повторити
+     */
+    public record Decision(boolean allowed, String dimension, long retryAfterNanos) {
+        static final Decision ALLOWED = new Decision(true, null, 0);
+
+        // Retry-After у цілих секундах, не менше 1
+        public long retryAfterSeconds() {
+            return Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L);
+        }
+    }
+
+    /**
+     * Ліміт одного виміру маршруту та його кошики
+     */
+    private final class Limit {
+        final String name;
+        final long interval;
+        final long tolerance;
+        final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        final ReentrantLock sweepLock = new ReentrantLock();
+        final AtomicBoolean sweepQueued = new AtomicBoolean();
+        final Counter allowed;
+        final Counter rejected;
+        final Counter overflow;
+
+        Limit(String route, String dimension, String spec) {
+            this.name = route + "." + dimension;
+            String[] parts = spec.trim().split("/");
+            long capacity = Long.parseLong(parts[0].trim());
+            Duration period = DurationStyle.detectAndParse(parts[1].trim());
+            if (capacity <= 0 || period.isZero() || period.isNegative()) {
+                throw new IllegalArgumentException("Некоректний ліміт " + name + ": " + spec);
+            }
+            this.interval = period.toNanos() / capacity;
+            this.tolerance = interval * (capacity - 1);
+            this.allowed = decisions(route, dimension, "allowed");
+            this.rejected = decisions(route, dimension, "rejected");
+            this.overflow = decisions(route, dimension, "overflow");
+            Gauge.builder("polls.ratelimit.keys", buckets, Map::size)
+                    .description("Відстежувані ключі ліміту")
+                    .tag("route", route)
+                    .tag("dimension", dimension)
+                    .register(meterRegistry);
+            logger.info("🚦 Ліміт {}: {} ({} токенів)", name, spec, capacity);
+        }
+
+        long acquire(String key, long now) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxKeys && !evictIdle(now)) {
+                    requestSweep();
+                    overflow.increment();
+                    return interval;
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new TokenBucket());
+            }
+            long wait = bucket.tryAcquire(now, interval, tolerance);
+            (wait == 0 ? allowed : rejected).increment();
+            return wait;
+        }
+
+        /**
+         * Витіснити один повний кошик серед перших EVICT_PROBES - O(1) у потоці запиту
+         */
+        private boolean evictIdle(long now) {
+            Iterator<TokenBucket> it = buckets.values().iterator();
+            for (int i = 0; i < EVICT_PROBES && it.hasNext(); i++) {
+                if (it.next().idle(now)) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Повне прибирання - у потоці ratelimit-sweep, не більше одного в черзі
+         */
+        private void requestSweep() {
+            if (sweeper != null && sweepQueued.compareAndSet(false, true)) {
+                sweeper.execute(() -> {
+                    sweepQueued.set(false);
+                    sweep(this, System.nanoTime());
+                });
+            }
+        }
+
+        private Counter decisions(String route, String dimension, String outcome) {
+            return Counter.builder("polls.ratelimit.decisions")
+                    .description("Рішення обмежувача запитів")
+                    .tag("route", route)
+                    .tag("dimension", dimension)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Value("${polls.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${polls.ratelimit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${polls.ratelimit.sweep-seconds:30}")
+    private long sweepSeconds;
+
+    @Value("${polls.ratelimit.votes.fingerprint:10/60s}")
+    private String votesFingerprint;
+
+    @Value("${polls.ratelimit.votes.ip:300/60s}")
+    private String votesIp;
+
+    @Value("${polls.ratelimit.iot-votes.kiosk:120/60s}")
+    private String iotVotesKiosk;
+
+    @Value("${polls.ratelimit.iot-votes.ip:600/60s}")
+    private String iotVotesIp;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Limit voteFingerprintLimit;
+    private Limit voteIpLimit;
+    private Limit iotKioskLimit;
+    private Limit iotIpLimit;
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            logger.warn("⚠️ Обмеження частоти голосів вимкнено (polls.ratelimit.enabled=false)");
+            return;
+        }
+        voteFingerprintLimit = new Limit(VOTES, "fingerprint", votesFingerprint);
+        voteIpLimit = new Limit(VOTES, "ip", votesIp);
+        iotKioskLimit = new Limit(IOT_VOTES, "kiosk", iotVotesKiosk);
+        iotIpLimit = new Limit(IOT_VOTES, "ip", iotVotesIp);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ratelimit-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepAll, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * POST /api/votes: спершу IP (широкий ліміт), потім відбиток (ключ від клієнта)
+     */
+    public Decision checkVote(String fingerprintId, String ip) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        return check(voteIpLimit, "ip", ip, voteFingerprintLimit, "fingerprint", fingerprintId);
+    }
+
+    /**
+     * POST /api/iot/votes: спершу IP, потім кіоск (iotDeviceId)
+     */
+    public Decision checkIotVote(String kioskId, String ip) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        return check(iotIpLimit, "ip", ip, iotKioskLimit, "kiosk", kioskId);
+    }
+
+    // Відхилення за першим виміром не витрачає токен другого
+    private Decision check(Limit first, String firstDimension, String firstKey,
+                           Limit second, String secondDimension, String secondKey) {
+        long now = System.nanoTime();
+        if (firstKey != null) {
+            long wait = first.acquire(firstKey, now);
+            if (wait > 0) {
+                return new Decision(false, firstDimension, wait);
+            }
+        }
+        if (secondKey != null) {
+            long wait = second.acquire(secondKey, now);
+            if (wait > 0) {
+                return new Decision(false, secondDimension, wait);
+            }
+        }
+        return Decision.ALLOWED;
+    }
+
+    private void sweepAll() {
+        long now = System.nanoTime();
+        for (Limit limit : new Limit[]{voteFingerprintLimit, voteIpLimit, iotKioskLimit, iotIpLimit}) {
+            sweep(limit, now);
+        }
+    }
+
+    /**
+     * Видалити повні кошики; одночасно лише один прохід на ліміт
+     * Гонка з паралельним acquire на видаленому кошику - щонайбільше один зайвий токен
+     */
+    private void sweep(Limit limit, long now) {
+        if (!limit.sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            int before = limit.buckets.size();
+            limit.buckets.values().removeIf(bucket -> bucket.idle(now));
+            logger.debug("🧹 Ліміт {}: {} -> {} ключів", limit.name, before, limit.buckets.size());
+        } finally {
+            limit.sweepLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.polls.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket без блокувань: увесь стан - один AtomicLong
+ *
+ * МАТЕМАТИКА (GCRA - еквівалент token bucket): зберігається "теоретичний час прибуття"
+ * tat. Кожен запит зсуває його на interval = period / capacity; запит допускається,
+ * поки tat випереджає now не більше ніж на tolerance = interval * (capacity - 1),
+ * тобто поки в кошику є хоча б один токен. tat <= now - кошик повний (idle).
+ */
+final class TokenBucket {
+
+    private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @return 0 - токен взято, інакше наносекунд до появи наступного токена
+     */
+    long tryAcquire(long now, long interval, long tolerance) {
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            long ahead = base - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (tat.compareAndSet(current, base + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Кошик повний: видалення нічого не змінює, новий кошик поводиться так само
+     */
+    boolean idle(long now) {
+        return tat.get() <= now;
+    }
+}
@@ -0,0 +1,40 @@
+package com.polls.backend.repository;
+
+import com.polls.backend.entity.IotVoteOption;
+import com.polls.backend.repository.projection.OptionCountRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface IotVoteOptionRepository extends JpaRepository<IotVoteOption, IotVoteOption.Key> {
+
+    // Прямий INSERT: save() з ключем, заданим вручну, спершу робить SELECT (merge)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO iot_vote_options (iot_vote_id, option_id, poll_id) " +
+            "VALUES (:iotVoteId, :optionId, :pollId)",
+            nativeQuery = true)
+    int add(@Param("iotVoteId") UUID iotVoteId, @Param("optionId") UUID optionId, @Param("pollId") UUID pollId);
+
+    @Query("SELECT s.optionId FROM IotVoteOption s WHERE s.iotVoteId = :iotVoteId")
+    List<UUID> findOptionIdsByIotVoteId(@Param("iotVoteId") UUID iotVoteId);
+
+    // Звірка колонки iot_votes у poll_option_counters; голоси REJECTED не рахуються
+    @Query("SELECT s.pollId AS pollId, s.optionId AS optionId, COUNT(s) AS votes " +
+            "FROM IotVoteOption s JOIN IotVote v ON v.id = s.iotVoteId " +
+            "WHERE v.validationStatus IS DISTINCT FROM 'REJECTED' " +
+            "GROUP BY s.pollId, s.optionId")
+    List<OptionCountRow> countAllByPollAndOption();
+
+    @Query("SELECT COUNT(s) FROM IotVoteOption s JOIN IotVote v ON v.id = s.iotVoteId " +
+            "WHERE s.pollId = :pollId AND s.optionId = :optionId " +
+            "AND v.validationStatus IS DISTINCT FROM 'REJECTED'")
+    long countByPollIdAndOptionId(@Param("pollId") UUID pollId, @Param("optionId") UUID optionId);
+}
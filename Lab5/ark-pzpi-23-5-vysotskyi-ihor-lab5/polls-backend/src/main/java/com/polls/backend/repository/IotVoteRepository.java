@@ -1,11 +1,20 @@
 package com.polls.backend.repository;
 
 import com.polls.backend.entity.IotVote;
+import com.polls.backend.repository.projection.RatingCountRow;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface IotVoteRepository extends JpaRepository<IotVote, UUID> {
@@ -14,4 +23,19 @@ public interface IotVoteRepository extends JpaRepository<IotVote, UUID> {
     List<IotVote> findByValidationStatus(String validationStatus);
     long countByIotDeviceId(UUID iotDeviceId);
     long countByPollId(UUID pollId);
+
+    // Тексти відповідей кіосків потоком (засів TextTermsService); лише в транзакції
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v.textAnswer FROM IotVote v WHERE v.poll.id = :pollId AND v.textAnswer IS NOT NULL")
+    Stream<String> streamTextAnswersByPollId(@Param("pollId") UUID pollId);
+
+    // Гістограми оцінок кіосків (засів RatingHistogramService): рядок на (кіоск, оцінка), без REJECTED
+    @Query("SELECT v.iotDevice.id AS iotDeviceId, v.rating AS rating, COUNT(v) AS votes FROM IotVote v " +
+            "WHERE v.poll.id = :pollId AND v.rating IS NOT NULL " +
+            "AND v.validationStatus IS DISTINCT FROM 'REJECTED' " +
+            "GROUP BY v.iotDevice.id, v.rating")
+    List<RatingCountRow> countRatingsByPollId(@Param("pollId") UUID pollId);
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.polls.backend.repository;
+
+import com.polls.backend.entity.PollOptionCounter;
+import com.polls.backend.repository.projection.OptionCountRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PollOptionCounterRepository extends JpaRepository<PollOptionCounter, PollOptionCounter.Key> {
+
+    // Атомарний інкремент слоту: рядок блокується лише на час цього UPDATE, інші слоти вільні
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO poll_option_counters (poll_id, option_id, slot, votes) " +
+            "VALUES (:pollId, :optionId, :slot, :delta) " +
+            "ON CONFLICT (poll_id, option_id, slot) DO UPDATE SET votes = poll_option_counters.votes + EXCLUDED.votes",
+            nativeQuery = true)
+    int add(@Param("pollId") UUID pollId, @Param("optionId") UUID optionId,
+            @Param("slot") short slot, @Param("delta") long delta);
+
+    // Те саме для вибраного варіанту голосу кіоску (колонка iot_votes)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO poll_option_counters (poll_id, option_id, slot, votes, iot_votes) " +
+            "VALUES (:pollId, :optionId, :slot, 0, :delta) " +
+            "ON CONFLICT (poll_id, option_id, slot) DO UPDATE SET iot_votes = poll_option_counters.iot_votes + EXCLUDED.iot_votes",
+            nativeQuery = true)
+    int addIot(@Param("pollId") UUID pollId, @Param("optionId") UUID optionId,
+               @Param("slot") short slot, @Param("delta") long delta);
+
+    // Усі голоси голосування, включно з текстовими відповідями та виборами кіосків
+    @Query("SELECT COALESCE(SUM(c.votes + c.iotVotes), 0) FROM PollOptionCounter c WHERE c.pollId = :pollId")
+    long sumByPollId(@Param("pollId") UUID pollId);
+
+    @Query("SELECT COALESCE(SUM(c.votes), 0) FROM PollOptionCounter c " +
+            "WHERE c.pollId = :pollId AND c.optionId = :optionId")
+    long sumByPollIdAndOptionId(@Param("pollId") UUID pollId, @Param("optionId") UUID optionId);
+
+    @Query("SELECT COALESCE(SUM(c.iotVotes), 0) FROM PollOptionCounter c " +
+            "WHERE c.pollId = :pollId AND c.optionId = :optionId")
+    long sumIotByPollIdAndOptionId(@Param("pollId") UUID pollId, @Param("optionId") UUID optionId);
+
+    @Query("SELECT c.pollId AS pollId, c.optionId AS optionId, SUM(c.votes) AS votes " +
+            "FROM PollOptionCounter c GROUP BY c.pollId, c.optionId")
+    List<OptionCountRow> sumAll();
+
+    @Query("SELECT c.pollId AS pollId, c.optionId AS optionId, SUM(c.iotVotes) AS votes " +
+            "FROM PollOptionCounter c GROUP BY c.pollId, c.optionId")
+    List<OptionCountRow> sumAllIot();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PollOptionCounter c WHERE c.pollId = :pollId AND c.optionId = :optionId")
+    int deleteByPollIdAndOptionId(@Param("pollId") UUID pollId, @Param("optionId") UUID optionId);
+
+    // Повна перебудова з votes та iot_vote_options (після відновлення знімка / копії в обхід сервісів)
+    @Modifying
+    @Query(value = "LOCK TABLE poll_option_counters IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockExclusive();
+
+    @Modifying
+    @Query(value = "DELETE FROM poll_option_counters", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO poll_option_counters (poll_id, option_id, slot, votes) " +
+            "SELECT poll_id, COALESCE(option_id, '00000000-0000-0000-0000-000000000000'::uuid), 0, COUNT(*) " +
+            "FROM votes GROUP BY poll_id, COALESCE(option_id, '00000000-0000-0000-0000-000000000000'::uuid)",
+            nativeQuery = true)
+    int insertFromVotes();
+
+    // Після insertFromVotes: варіанти без веб-голосів отримують новий рядок слоту 0
+    // Голоси кіосків REJECTED зберігаються для аудиту, але не рахуються
+    @Modifying
+    @Query(value = "INSERT INTO poll_option_counters (poll_id, option_id, slot, votes, iot_votes) " +
+            "SELECT s.poll_id, s.option_id, 0, 0, COUNT(*) FROM iot_vote_options s " +
+            "JOIN iot_votes v ON v.id = s.iot_vote_id " +
+            "WHERE v.validation_status IS DISTINCT FROM 'REJECTED' " +
+            "GROUP BY s.poll_id, s.option_id " +
+            "ON CONFLICT (poll_id, option_id, slot) DO UPDATE SET iot_votes = EXCLUDED.iot_votes",
+            nativeQuery = true)
+    int insertFromIotVoteOptions();
+}
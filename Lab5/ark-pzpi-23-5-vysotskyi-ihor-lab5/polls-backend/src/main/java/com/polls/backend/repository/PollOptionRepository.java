@@ -2,13 +2,33 @@ package com.polls.backend.repository;
 
 import com.polls.backend.entity.PollOption;
 import com.polls.backend.entity.Poll;
+import com.polls.backend.repository.projection.OptionTallyRow;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
 public interface PollOptionRepository extends JpaRepository<PollOption, UUID> {
+    // Кеш запитів: список id з кешу, самі варіанти - з кешу сутностей PollOption
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<PollOption> findByPollOrderByOrderNum(Poll poll);
+
+    // Варіанти з кількістю голосів одним запитом (варіанти без голосів - з нулем)
+    // Сума слотів poll_option_counters по первинному ключу, без сканування votes та iot_vote_options
+    // votes - усього (веб + кіоски), iotVotes - частка кіосків
+    @Query("SELECT o.id AS optionId, o.text AS optionText, o.orderNum AS orderNum, " +
+            "COALESCE(SUM(c.votes + c.iotVotes), 0) AS votes, COALESCE(SUM(c.iotVotes), 0) AS iotVotes " +
+            "FROM PollOption o LEFT JOIN PollOptionCounter c ON c.pollId = o.poll.id AND c.optionId = o.id " +
+            "WHERE o.poll.id = :pollId " +
+            "GROUP BY o.id, o.text, o.orderNum " +
+            "ORDER BY o.orderNum")
+    List<OptionTallyRow> findTalliesByPollId(@Param("pollId") UUID pollId);
 }
\ No newline at end of file
@@ -2,11 +2,21 @@ package com.polls.backend.repository;
 
 import com.polls.backend.entity.Poll;
 import com.polls.backend.entity.DeviceFingerprint;
+import com.polls.backend.repository.projection.PollExportRow;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PollRepository extends JpaRepository<Poll, UUID> {
@@ -14,4 +24,30 @@ public interface PollRepository extends JpaRepository<Poll, UUID> {
     List<Poll> findByStatus(String status);
     List<Poll> findByType(String type);
     List<Poll> findByOrganizerFingerprintAndStatus(DeviceFingerprint organizer, String status);
+
+    // Один запит замість N+1: голосування разом з кількістю голосів.
+    // Курсор читається порціями (fetch size), тому пам'ять не залежить від кількості голосувань.
+    // Викликати лише всередині транзакції та закривати Stream після використання.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.title AS title, p.type AS type, p.status AS status, " +
+            "p.createdAt AS createdAt, COUNT(v.id) AS voteCount " +
+            "FROM Poll p LEFT JOIN p.votes v " +
+            "GROUP BY p.id, p.title, p.type, p.status, p.createdAt " +
+            "ORDER BY p.createdAt")
+    Stream<PollExportRow> streamAllWithVoteCounts();
+
+    // Статус під FOR SHARE у транзакції голосу: UPDATE polls (закриття / архівування) чекає
+    // на коміт голосу, а голос після закриття бачить CLOSED - знімок результатів нічого не губить
+    @Query(value = "SELECT status FROM polls WHERE id = :pollId FOR SHARE", nativeQuery = true)
+    String lockStatusForShare(@Param("pollId") UUID pollId);
+
+    // Трендові: сортування за кількістю голосів у БД замість countByPoll у компараторі
+    @Query("SELECT p FROM Poll p LEFT JOIN p.votes v " +
+            "WHERE p.status = :status " +
+            "GROUP BY p " +
+            "ORDER BY COUNT(v.id) DESC, p.createdAt DESC")
+    List<Poll> findByStatusOrderByVoteCountDesc(@Param("status") String status, Pageable pageable);
 }
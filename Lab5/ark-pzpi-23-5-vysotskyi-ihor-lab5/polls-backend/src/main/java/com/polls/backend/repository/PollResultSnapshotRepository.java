@@ -0,0 +1,11 @@
+package com.polls.backend.repository;
+
+import com.polls.backend.entity.PollResultSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PollResultSnapshotRepository extends JpaRepository<PollResultSnapshot, UUID> {
+}
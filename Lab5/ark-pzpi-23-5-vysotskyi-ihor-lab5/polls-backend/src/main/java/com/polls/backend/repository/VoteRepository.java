@@ -3,14 +3,22 @@ package com.polls.backend.repository;
 import com.polls.backend.entity.Vote;
 import com.polls.backend.entity.Poll;
 import com.polls.backend.entity.DeviceFingerprint;
+import com.polls.backend.repository.projection.OptionCountRow;
+import com.polls.backend.repository.projection.VoteDetailRow;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, UUID> {
@@ -20,6 +28,33 @@ public interface VoteRepository extends JpaRepository<Vote, UUID> {
     Optional<Vote> findByPollAndFingerprint(Poll poll, DeviceFingerprint fingerprint);
     long countByPoll(Poll poll);
 
+    // Усі голоси, включно з текстовими відповідями без варіанту
+    long countByPollId(UUID pollId);
+
+    // Деталі голосів для CSV: хеш відбитка та текст варіанту JOIN'ом, без сутностей Vote
+    @Query("SELECT v.id AS id, f.fingerprintHash AS fingerprintHash, o.text AS optionText, v.votedAt AS votedAt " +
+            "FROM Vote v JOIN v.fingerprint f LEFT JOIN v.option o " +
+            "WHERE v.poll.id = :pollId " +
+            "ORDER BY v.votedAt")
+    List<VoteDetailRow> findDetailsByPollId(@Param("pollId") UUID pollId);
+
+    // Звірка лічильників poll_option_counters: optionId = null - текстові відповіді
+    @Query("SELECT v.poll.id AS pollId, o.id AS optionId, COUNT(v.id) AS votes " +
+            "FROM Vote v LEFT JOIN v.option o " +
+            "GROUP BY v.poll.id, o.id")
+    List<OptionCountRow> countAllByPollAndOption();
+
+    long countByPollIdAndOption_Id(UUID pollId, UUID optionId);
+    long countByPollIdAndOptionIsNull(UUID pollId);
+
+    // Тексти відповідей потоком (засів TextTermsService); лише в транзакції, Stream закривати
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v.textAnswer FROM Vote v WHERE v.poll.id = :pollId AND v.textAnswer IS NOT NULL")
+    Stream<String> streamTextAnswersByPollId(@Param("pollId") UUID pollId);
+
     // ИСПРАВЛЕНО — теперь работает!
     long countByPollAndOption_Id(Poll poll, UUID optionId);
 
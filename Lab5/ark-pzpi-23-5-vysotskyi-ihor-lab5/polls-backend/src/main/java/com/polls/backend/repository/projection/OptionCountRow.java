@@ -0,0 +1,13 @@
+package com.polls.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Проекція: кількість голосів за парою (голосування, варіант)
+ * Звірка шардованих лічильників з COUNT(*) по votes
+ */
+public interface OptionCountRow {
+    UUID getPollId();
+    UUID getOptionId();
+    long getVotes();
+}
@@ -0,0 +1,16 @@
+package com.polls.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Проекція: варіант голосування та кількість голосів за ним
+ * Один GROUP BY запит замість завантаження всіх Vote та лінивих PollOption
+ */
+public interface OptionTallyRow {
+    UUID getOptionId();
+    String getOptionText();
+    Integer getOrderNum();
+    long getVotes();
+    // Голоси кіосків (IotVoteOption), окремо від веб-голосів
+    long getIotVotes();
+}
@@ -0,0 +1,17 @@
+package com.polls.backend.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекція рядка для експорту всіх голосувань у CSV
+ * Голосування + кількість голосів, отримані одним GROUP BY запитом
+ */
+public interface PollExportRow {
+    UUID getId();
+    String getTitle();
+    String getType();
+    String getStatus();
+    LocalDateTime getCreatedAt();
+    long getVoteCount();
+}
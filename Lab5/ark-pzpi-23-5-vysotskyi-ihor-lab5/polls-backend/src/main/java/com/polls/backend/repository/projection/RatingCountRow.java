@@ -0,0 +1,13 @@
+package com.polls.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Проекція: кількість оцінок кіоску за значенням рейтингу
+ * Засів гістограм RatingHistogramService одним GROUP BY замість усіх IotVote
+ */
+public interface RatingCountRow {
+    UUID getIotDeviceId();
+    Integer getRating();
+    long getVotes();
+}
@@ -0,0 +1,15 @@
+package com.polls.backend.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекція рядка деталей голосу для CSV
+ * Текст варіанту та хеш відбитка приходять JOIN'ом, без лінивих Vote.option / Vote.fingerprint
+ */
+public interface VoteDetailRow {
+    UUID getId();
+    String getFingerprintHash();
+    String getOptionText();
+    LocalDateTime getVotedAt();
+}
@@ -0,0 +1,172 @@
+package com.polls.backend.service;
+
+import com.polls.backend.dto.BackupJobStatusDTO;
+import com.polls.backend.jfr.JobEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реєстр фонових задач резервного копіювання (pg_dump, знімки COPY, відновлення)
+ * Спільний для BackupService та SnapshotService, тому стан будь-якої задачі
+ * доступний за одним jobId
+ */
+@Component
+public class BackupJobRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupJobRegistry.class);
+    private static final int MAX_KEPT_JOBS = 50;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private TaskExecutor jobExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<UUID, BackupJob> jobs = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface JobBody {
+        void run(BackupJob job) throws Exception;
+    }
+
+    /**
+     * Поставити задачу в чергу jobExecutor
+     *
+     * @throws org.springframework.core.task.TaskRejectedException якщо черга переповнена
+     */
+    public BackupJobStatusDTO submit(String type, String backupName, JobBody body) {
+        BackupJob job = new BackupJob(UUID.randomUUID(), type);
+        job.backupName = backupName;
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+
+        try {
+            jobExecutor.execute(() -> {
+                job.start();
+                Timer.Sample sample = Timer.start(meterRegistry);
+                JobEvent event = new JobEvent();
+                event.begin();
+                try {
+                    body.run(job);
+                    job.finish("COMPLETED", null);
+                } catch (Exception e) {
+                    logger.error("❌ Фонова задача {} ({}) завершилась з помилкою", job.id, type, e);
+                    job.finish("FAILED", e.getMessage());
+                }
+                recordJob(sample, event, job);
+            });
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * МЕТРИКИ: polls.backup.duration{type, state} та polls.backup.size{type}
+     * JFR: polls.Job (kind = backup)
+     */
+    private void recordJob(Timer.Sample sample, JobEvent event, BackupJob job) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "backup";
+            event.type = job.type;
+            event.outcome = job.state;
+            event.sizeBytes = job.sizeBytes != null ? job.sizeBytes : 0L;
+            event.commit();
+        }
+        sample.stop(Timer.builder("polls.backup.duration")
+                .description("Тривалість задачі копіювання / знімка / відновлення")
+                .tag("type", job.type)
+                .tag("state", job.state)
+                .register(meterRegistry));
+        if (job.sizeBytes != null && "COMPLETED".equals(job.state)) {
+            DistributionSummary.builder("polls.backup.size")
+                    .baseUnit("bytes")
+                    .tag("type", job.type)
+                    .register(meterRegistry)
+                    .record(job.sizeBytes);
+        }
+    }
+
+    public BackupJobStatusDTO get(UUID jobId) {
+        BackupJob job = jobs.get(jobId);
+        return job != null ? job.toStatus() : null;
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= MAX_KEPT_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(j -> j.finishedAt != null)
+                .sorted(Comparator.comparing(j -> j.finishedAt))
+                .limit(jobs.size() - MAX_KEPT_JOBS)
+                .forEach(j -> jobs.remove(j.id));
+    }
+
+    /**
+     * Стан однієї задачі; поля оновлюються потоком задачі, читаються з HTTP-запитів
+     */
+    public static class BackupJob {
+        private final UUID id;
+        private final String type;
+        private volatile String state = "QUEUED";
+        private volatile String message;
+        private volatile String backupName;
+        private volatile String filepath;
+        private volatile Long sizeBytes;
+        private volatile Map<String, Object> details;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startNanos;
+        private volatile Long durationMs;
+
+        BackupJob(UUID id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        public void setResult(String backupName, String filepath, Long sizeBytes) {
+            this.backupName = backupName;
+            this.filepath = filepath;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public void setDetails(Map<String, Object> details) {
+            this.details = details;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+            state = "RUNNING";
+        }
+
+        void finish(String newState, String reason) {
+            durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+            finishedAt = LocalDateTime.now();
+            message = reason;
+            state = newState;
+        }
+
+        BackupJobStatusDTO toStatus() {
+            return new BackupJobStatusDTO(id.toString(), type, state, backupName, filepath, message,
+                    startedAt, finishedAt, durationMs, sizeBytes, details);
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.polls.backend.service;
 
+import com.polls.backend.cluster.ClusterNotifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polls.backend.dto.BackupJobStatusDTO;
 import com.polls.backend.dto.DbInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.*;
 import java.net.URI;
 import java.nio.file.*;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class BackupService {
@@ -20,6 +29,11 @@ public class BackupService {
     private static final DateTimeFormatter dateFormatter =
             DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
 
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String FORMAT_DIRECTORY = "directory"; // pg_dump -Fd (стиснений, паралельний)
+    private static final String FORMAT_PLAIN = "plain";         // старі .sql копії
+    static final String FORMAT_COPY = "copy";                   // знімки SnapshotService (COPY binary)
+
     @Value("${spring.datasource.url}")
     private String dbUrl;
 
@@ -32,221 +46,495 @@ public class BackupService {
     @Value("${backup.directory:./backups}")
     private String backupDir;
 
+    @Value("${backup.parallel-jobs:4}")
+    private int parallelJobs;
+
+    @Value("${backup.compression-level:6}")
+    private int compressionLevel;
+
+    @Autowired
+    private BackupJobRegistry jobRegistry;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    @Autowired
+    private TextTermsService textTermsService;
+
+    @Autowired
+    private RatingHistogramService ratingHistogramService;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private FrozenResultsService frozenResultsService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    // Маніфест змінюється з фонових задач та HTTP-запитів
+    private final ReentrantLock manifestLock = new ReentrantLock();
+
+    // ========================================================================
+    // ФОНОВІ ЗАДАЧІ
+    // ========================================================================
+
+    /**
+     * Запустити створення резервної копії у фоні
+     */
+    public BackupJobStatusDTO startBackup() {
+        return jobRegistry.submit("BACKUP", null, job -> {
+            ManifestEntry entry = createBackup();
+            job.setResult(entry.name(), entry.path(), entry.sizeBytes());
+            job.setDetails(throughput(entry.sizeBytes(), entry.durationMs()));
+        });
+    }
+
+    /**
+     * Запустити відновлення у фоні
+     * Перед відновленням контрольні суми перевіряються за маніфестом
+     */
+    public BackupJobStatusDTO startRestore(String backup) {
+        ManifestEntry entry = findBackup(backup)
+                .orElseThrow(() -> new IllegalArgumentException("Резервну копію не знайдено: " + backup));
+        if (FORMAT_COPY.equals(entry.format())) {
+            throw new IllegalArgumentException("Знімок COPY відновлюється через /api/admin/snapshots/restore");
+        }
+
+        return jobRegistry.submit("RESTORE", entry.name(), job -> {
+            job.setResult(entry.name(), entry.path(), entry.sizeBytes());
+            restore(entry);
+        });
+    }
+
+    /**
+     * Стан фонової задачі
+     */
+    public BackupJobStatusDTO getJobStatus(UUID jobId) {
+        return jobRegistry.get(jobId);
+    }
+
     /**
      * ФАЗА 1: Створення резервної копії
-     * Використовує pg_dump для PostgreSQL
+     * pg_dump у directory-форматі: кожна таблиця у власному стисненому файлі,
+     * таблиці вивантажуються паралельно (-j N)
      */
-    public String createBackup() {
+    public ManifestEntry createBackup() {
         try {
-            // Створення директорії, якщо не існує
             Files.createDirectories(Paths.get(backupDir));
 
-            // Генерування імені файлу з часовою міткою
             String timestamp = LocalDateTime.now().format(dateFormatter);
-            String filename = "polls_backup_" + timestamp + ".sql";
-            String filepath = backupDir + "/" + filename;
+            String name = "polls_backup_" + timestamp;
+            Path dumpDir = Paths.get(backupDir, name);
 
-            // Витягування деталей БД з URL
-            // jdbc:postgresql://host:port/dbname → host, port, dbname
             DbInfo db = parseJdbcUrl(dbUrl);
 
-            String dbName = db.dbName();
-            String dbHost = db.host();
-            String dbPort = db.port();
-
-            // МАТЕМАТИКА: Команда pg_dump
-            // pg_dump -h HOST -p PORT -U USERNAME -F plain DATABASE > backup.sql
+            // pg_dump -h HOST -p PORT -U USER -Fd -j N -Z LEVEL -f DIR DATABASE
             ProcessBuilder pb = new ProcessBuilder(
                     "pg_dump",
-                    "-h", dbHost,
-                    "-p", dbPort,
+                    "-h", db.host(),
+                    "-p", db.port(),
                     "-U", dbUsername,
-                    "-F", "plain",  // plain text format (не binary)
-                    "-v",           // verbose
-                    dbName
+                    "-F", "d",                                // directory format
+                    "-j", String.valueOf(parallelJobs),       // паралельні з'єднання
+                    "-Z", String.valueOf(compressionLevel),   // gzip-стиснення
+                    "-f", dumpDir.toString(),
+                    db.dbName()
             );
 
-            // Встановлення змінної середовища для пароля
-            Map<String, String> env = pb.environment();
-            env.put("PGPASSWORD", dbPassword);
-
-            // Перенаправлення виходу у файл
-            pb.redirectOutput(new File(filepath));
-            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            long startNanos = System.nanoTime();
+            int exitCode = runProcess(pb);
+            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
 
-            // ВИКОНАННЯ
-            Process process = pb.start();
-            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                logger.error("❌ Помилка при створенні резервної копії. Exit code: {}", exitCode);
+                deleteRecursively(dumpDir);
+                throw new RuntimeException("pg_dump failed with exit code: " + exitCode);
+            }
 
-            if (exitCode == 0) {
-                logger.info("✅ Резервна копія успішно створена: {}", filepath);
+            // МАТЕМАТИКА: SHA-256 для кожного файлу дампу
+            Map<String, String> checksums = computeChecksums(dumpDir);
+            long size = directorySize(dumpDir);
 
-                // Отримання розміру файлу
-                long fileSize = Files.size(Paths.get(filepath));
-                logger.info("📊 Розмір файлу: {} байт", fileSize);
+            ManifestEntry entry = new ManifestEntry(name, dumpDir.toString(), FORMAT_DIRECTORY,
+                    LocalDateTime.now(), size, durationMs, checksums);
+            updateManifest(manifest -> manifest.backups().add(entry));
 
-                return filepath;
-            } else {
-                logger.error("❌ Помилка при створенні резервної копії. Exit code: {}",
-                        exitCode);
-                throw new RuntimeException("pg_dump failed with exit code: " + exitCode);
-            }
+            logger.info("✅ Резервна копія успішно створена: {} ({} байт, {} мс, -j {})",
+                    dumpDir, size, durationMs, parallelJobs);
+            return entry;
 
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("❌ Помилка при створенні резервної копії", e);
             throw new RuntimeException("Backup failed: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * ФАЗА 2: Відновлення з резервної копії
-     * Використовує psql для PostgreSQL
-     */
-    public boolean restoreBackup(String backupFilepath) {
-        try {
-            // Перевірка існування файлу
-            if (!Files.exists(Paths.get(backupFilepath))) {
-                logger.error("❌ Файл резервної копії не знайдено: {}", backupFilepath);
-                return false;
-            }
-
-            DbInfo db = parseJdbcUrl(dbUrl);
-
-            String dbName = db.dbName();
-            String dbHost = db.host();
-            String dbPort = db.port();
+    private void restore(ManifestEntry entry) throws IOException, InterruptedException {
+        Map<String, Object> verification = verify(entry);
+        if (!Boolean.TRUE.equals(verification.get("valid"))) {
+            throw new IllegalStateException("Контрольні суми не збігаються: " + verification.get("mismatched"));
+        }
 
-            // МАТЕМАТИКА: Команда відновлення
-            // psql -h HOST -p PORT -U USERNAME -d DATABASE < backup.sql
-            ProcessBuilder pb = new ProcessBuilder(
+        DbInfo db = parseJdbcUrl(dbUrl);
+        ProcessBuilder pb;
+        if (FORMAT_DIRECTORY.equals(entry.format())) {
+            // pg_restore -j N --clean --if-exists -d DATABASE DIR
+            pb = new ProcessBuilder(
+                    "pg_restore",
+                    "-h", db.host(),
+                    "-p", db.port(),
+                    "-U", dbUsername,
+                    "-d", db.dbName(),
+                    "-j", String.valueOf(parallelJobs),
+                    "--clean", "--if-exists", "--no-owner",
+                    entry.path()
+            );
+        } else {
+            // Старі plain .sql копії відтворюються через psql
+            pb = new ProcessBuilder(
                     "psql",
-                    "-h", dbHost,
-                    "-p", dbPort,
+                    "-h", db.host(),
+                    "-p", db.port(),
                     "-U", dbUsername,
-                    "-d", dbName,
-                    "-f", backupFilepath  // читання з файлу
+                    "-d", db.dbName(),
+                    "-f", entry.path()
             );
+        }
 
-            // Встановлення змінної середовища для пароля
-            Map<String, String> env = pb.environment();
-            env.put("PGPASSWORD", dbPassword);
-
-            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
-
-            // ВИКОНАННЯ
-            Process process = pb.start();
-            int exitCode = process.waitFor();
+        int exitCode = runProcess(pb);
+        if (exitCode != 0) {
+            logger.error("❌ Помилка при відновленні резервної копії. Exit code: {}", exitCode);
+            throw new RuntimeException("Restore failed with exit code: " + exitCode);
+        }
+        voteCounterService.rebuild();
+        textTermsService.clear();
+        ratingHistogramService.clear();
+        pollTallyCache.invalidateAll();
+        frozenResultsService.discardAll();
+        pollStatusRegistry.evictAll();
+        clusterNotifier.allChanged();
+        logger.info("✅ Резервна копія успішно відновлена з: {}", entry.path());
+    }
 
-            if (exitCode == 0) {
-                logger.info("✅ Резервна копія успішно відновлена з: {}",
-                        backupFilepath);
-                return true;
-            } else {
-                logger.error("❌ Помилка при відновленні резервної копії. Exit code: {}",
-                        exitCode);
-                return false;
+    /**
+     * Бенчмарк pg_restore: дамп відновлюється в тимчасову БД, яка потім видаляється
+     * Час createdb/dropdb у замір не входить
+     */
+    Map<String, Object> benchmarkRestore(ManifestEntry entry) {
+        DbInfo db = parseJdbcUrl(dbUrl);
+        String scratch = db.dbName() + "_restore_bench";
+        try {
+            // Залишок попереднього невдалого запуску
+            runProcess(new ProcessBuilder("dropdb", "-h", db.host(), "-p", db.port(), "-U", dbUsername,
+                    "--if-exists", scratch));
+            int exitCode = runProcess(new ProcessBuilder("createdb", "-h", db.host(), "-p", db.port(),
+                    "-U", dbUsername, scratch));
+            if (exitCode != 0) {
+                throw new RuntimeException("createdb failed with exit code: " + exitCode);
             }
 
+            try {
+                // pg_restore -j N --no-owner -d SCRATCH DIR
+                ProcessBuilder pb = new ProcessBuilder(
+                        "pg_restore",
+                        "-h", db.host(),
+                        "-p", db.port(),
+                        "-U", dbUsername,
+                        "-d", scratch,
+                        "-j", String.valueOf(parallelJobs),
+                        "--no-owner",
+                        entry.path()
+                );
+
+                long startNanos = System.nanoTime();
+                exitCode = runProcess(pb);
+                long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+                if (exitCode != 0) {
+                    throw new RuntimeException("pg_restore failed with exit code: " + exitCode);
+                }
+                logger.info("⏱️ Бенчмарк pg_restore {}: {} мс, -j {}", entry.name(), durationMs, parallelJobs);
+                return throughput(entry.sizeBytes(), durationMs);
+            } finally {
+                runProcess(new ProcessBuilder("dropdb", "-h", db.host(), "-p", db.port(), "-U", dbUsername,
+                        "--if-exists", scratch));
+            }
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("❌ Помилка при відновленні резервної копії", e);
-            return false;
+            logger.error("❌ Помилка бенчмарку pg_restore", e);
+            throw new RuntimeException("Restore benchmark failed: " + e.getMessage(), e);
         }
     }
 
     /**
-     * ФАЗА 3: Отримання списку резервних копій
+     * Перевірка цілісності: перерахунок SHA-256 та порівняння з маніфестом
      */
+    public Map<String, Object> verifyBackup(String backup) {
+        return findBackup(backup).map(this::verify).orElse(null);
+    }
+
+    private Map<String, Object> verify(ManifestEntry entry) {
+        List<String> mismatched = new ArrayList<>();
+        Path path = Paths.get(entry.path());
+        try {
+            Map<String, String> actual = Files.isDirectory(path)
+                    ? computeChecksums(path)
+                    : Map.of(path.getFileName().toString(), sha256(path));
+            entry.checksums().forEach((file, expected) -> {
+                if (!expected.equals(actual.get(file))) {
+                    mismatched.add(file);
+                }
+            });
+        } catch (IOException e) {
+            mismatched.add("I/O: " + e.getMessage());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", entry.name());
+        result.put("filesChecked", entry.checksums().size());
+        result.put("valid", mismatched.isEmpty());
+        result.put("mismatched", mismatched);
+        return result;
+    }
 
     /**
      * ФАЗА 3: Отримання списку резервних копій
+     * Дані беруться з маніфесту, без обходу файлової системи
      */
     public List<Map<String, Object>> listBackups() {
         List<Map<String, Object>> backups = new ArrayList<>();
+        for (ManifestEntry entry : readManifest().backups()) {
+            Map<String, Object> backup = new LinkedHashMap<>();
+            backup.put("name", entry.name());
+            backup.put("filename", Paths.get(entry.path()).getFileName().toString());
+            backup.put("filepath", entry.path());
+            backup.put("format", entry.format());
+            backup.put("size", entry.sizeBytes());
+            backup.put("created", entry.createdAt());
+            backup.put("durationMs", entry.durationMs());
+            backup.put("files", entry.checksums().size());
+            backups.add(backup);
+        }
+        logger.info("📋 Знайдено {} резервних копій", backups.size());
+        return backups;
+    }
 
-        try {
-            if (!Files.exists(Paths.get(backupDir))) {
-                return backups;
+    /**
+     * ФАЗА 4: Видалення старих резервних копій
+     * МАТЕМАТИКА: Видалення записів маніфесту старших за N днів
+     */
+    public int deleteOldBackups(int daysOld) {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(daysOld);
+        List<ManifestEntry> expired = new ArrayList<>();
+
+        updateManifest(manifest -> {
+            Iterator<ManifestEntry> it = manifest.backups().iterator();
+            while (it.hasNext()) {
+                ManifestEntry entry = it.next();
+                if (entry.createdAt().isBefore(cutoff)) {
+                    expired.add(entry);
+                    it.remove();
+                }
             }
+        });
+
+        int deleted = 0;
+        for (ManifestEntry entry : expired) {
+            try {
+                deleteRecursively(Paths.get(entry.path()));
+                deleted++;
+            } catch (IOException e) {
+                logger.warn("⚠️ Помилка при видаленні резервної копії: {}", entry.path(), e);
+            }
+        }
 
-            Files.list(Paths.get(backupDir))
-                    .filter(path -> path.toString().endsWith(".sql"))
-                    .forEach(path -> {
-                        try {
-                            Map<String, Object> backup = new HashMap<>();
-                            backup.put("filename", path.getFileName().toString());
-                            backup.put("filepath", path.toString());
-                            backup.put("size", Files.size(path));
-
-                            // ✅ Конвертуємо FileTime в мілісекунди (long)
-                            long createdTime = Files.getLastModifiedTime(path).toMillis();
-                            backup.put("created", createdTime);
-
-                            // Або як ISO-8601 строка (красивіше):
-                            // backup.put("created",
-                            //    LocalDateTime.ofInstant(
-                            //        Instant.ofEpochMilli(createdTime),
-                            //        ZoneId.systemDefault()
-                            //    )
-                            // );
-
-                            backups.add(backup);
-                        } catch (IOException e) {
-                            logger.warn("⚠️ Помилка при читанні інформації про файл: {}",
-                                    path, e);
-                        }
-                    });
-
-            logger.info("📋 Знайдено {} резервних копій", backups.size());
-            return backups;
+        logger.info("✅ Видалено {} старих резервних копій", deleted);
+        return deleted;
+    }
 
-        } catch (IOException e) {
-            logger.error("❌ Помилка при отриманні списку резервних копій", e);
-            return backups;
-        }
+    // ========================================================================
+    // МАНІФЕСТ
+    // ========================================================================
+
+    /**
+     * Запис маніфесту: ім'я, шлях, формат, розмір, тривалість та SHA-256 кожного файлу
+     */
+    public record ManifestEntry(String name, String path, String format, LocalDateTime createdAt,
+                                long sizeBytes, long durationMs, Map<String, String> checksums) {}
+
+    record Manifest(int version, List<ManifestEntry> backups) {}
+
+    /**
+     * Додати до маніфесту копію, створену поза pg_dump (знімки COPY)
+     */
+    public void registerBackup(ManifestEntry entry) {
+        updateManifest(manifest -> manifest.backups().add(entry));
     }
 
     /**
-     * ФАЗА 4: Видалення старих резервних копій
-     * МАТЕМАТИКА: Видалення файлів старших за N днів
+     * Пошук копії за ім'ям, шляхом або ім'ям файлу
      */
-    public int deleteOldBackups(int daysOld) {
-        AtomicInteger deletedCount = new AtomicInteger(0);
+    public Optional<ManifestEntry> findBackup(String backup) {
+        if (backup == null || backup.isBlank()) {
+            return Optional.empty();
+        }
+        return readManifest().backups().stream()
+                .filter(e -> e.name().equals(backup) || e.path().equals(backup)
+                        || Paths.get(e.path()).getFileName().toString().equals(backup))
+                .findFirst();
+    }
 
+    private Manifest readManifest() {
+        manifestLock.lock();
         try {
-            if (!Files.exists(Paths.get(backupDir))) {
-                return 0;
+            Path manifestPath = Paths.get(backupDir, MANIFEST_FILE);
+            if (!Files.exists(manifestPath)) {
+                Manifest manifest = bootstrapManifest();
+                if (!manifest.backups().isEmpty()) {
+                    writeManifest(manifest);
+                }
+                return manifest;
             }
+            Manifest manifest = objectMapper.readValue(manifestPath.toFile(), Manifest.class);
+            return new Manifest(manifest.version(), new ArrayList<>(manifest.backups()));
+        } catch (IOException e) {
+            logger.error("❌ Помилка при читанні маніфесту резервних копій", e);
+            return new Manifest(1, new ArrayList<>());
+        } finally {
+            manifestLock.unlock();
+        }
+    }
 
-            long cutoffTime = System.currentTimeMillis() -
-                    (daysOld * 24 * 60 * 60 * 1000L);  // N днів у мс
-
-            Files.list(Paths.get(backupDir))
-                    .filter(path -> path.toString().endsWith(".sql"))
-                    .forEach(path -> {
-                        try {
-                            long lastModified = Files.getLastModifiedTime(path).toMillis();
-                            if (lastModified < cutoffTime) {
-                                Files.delete(path);
-                                deletedCount.incrementAndGet();
-                            }
-                        } catch (IOException e) {
-                            logger.warn("⚠️ Помилка при видаленні файлу: {}", path, e);
-                        }
-                    });
-
-            logger.info("✅ Видалено {} старих резервних копій", deletedCount);
-            return deletedCount.get();
-
+    private void updateManifest(java.util.function.Consumer<Manifest> change) {
+        manifestLock.lock();
+        try {
+            Manifest manifest = readManifest();
+            change.accept(manifest);
+            writeManifest(manifest);
         } catch (IOException e) {
-            logger.error("❌ Помилка при видаленні старих резервних копій", e);
-            return 0;
+            throw new UncheckedIOException("Не вдалося оновити маніфест", e);
+        } finally {
+            manifestLock.unlock();
         }
     }
 
+    private void writeManifest(Manifest manifest) throws IOException {
+        Path dir = Paths.get(backupDir);
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "manifest", ".tmp");
+        objectMapper.writeValue(tmp.toFile(), manifest);
+        Files.move(tmp, dir.resolve(MANIFEST_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Одноразова міграція: старі .sql копії, створені до появи маніфесту
+     */
+    private Manifest bootstrapManifest() throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        Path dir = Paths.get(backupDir);
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path path : files.filter(p -> p.toString().endsWith(".sql")).toList()) {
+                    String fileName = path.getFileName().toString();
+                    LocalDateTime created = LocalDateTime.ofInstant(
+                            Files.getLastModifiedTime(path).toInstant(), java.time.ZoneId.systemDefault());
+                    entries.add(new ManifestEntry(fileName.substring(0, fileName.length() - 4),
+                            path.toString(), FORMAT_PLAIN, created, Files.size(path), 0,
+                            Map.of(fileName, sha256(path))));
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(ManifestEntry::createdAt));
+        return new Manifest(1, entries);
+    }
+
     // ========================================================================
     // ДОПОМІЖНІ МЕТОДИ
     // ========================================================================
 
+    private int runProcess(ProcessBuilder pb) throws IOException, InterruptedException {
+        pb.environment().put("PGPASSWORD", dbPassword);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return pb.start().waitFor();
+    }
+
+    private Map<String, String> computeChecksums(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        }
+        // Файли таблиць незалежні, тому хешуються паралельно
+        Map<String, String> checksums = new ConcurrentHashMap<>();
+        files.parallelStream().forEach(file -> {
+            try {
+                checksums.put(dir.relativize(file).toString(), sha256(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return new TreeMap<>(checksums);
+    }
+
+    static String sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long directorySize(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(Files::isRegularFile)
+                    .mapToLong(p -> p.toFile().length())
+                    .sum();
+        }
+    }
+
+    private void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * МАТЕМАТИКА: Пропускна здатність = розмір / час (МБ/с)
+     */
+    static Map<String, Object> throughput(long sizeBytes, long durationMs) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("sizeBytes", sizeBytes);
+        details.put("durationMs", durationMs);
+        double mbPerSecond = durationMs > 0 ? (sizeBytes / 1_048_576.0) / (durationMs / 1000.0) : 0.0;
+        details.put("mbPerSecond", Math.round(mbPerSecond * 100.0) / 100.0);
+        return details;
+    }
+
     private DbInfo parseJdbcUrl(String jdbcUrl) {
         try {
             // убираем jdbc:
@@ -263,5 +551,4 @@ public class BackupService {
             throw new RuntimeException("Invalid JDBC URL: " + jdbcUrl, e);
         }
     }
-
-}
\ No newline at end of file
+}
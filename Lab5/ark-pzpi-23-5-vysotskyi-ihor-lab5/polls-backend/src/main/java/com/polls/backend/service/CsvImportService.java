@@ -0,0 +1,429 @@
+package com.polls.backend.service;
+
+import com.polls.backend.dto.CsvImportJobStatusDTO;
+import com.polls.backend.repository.DeviceFingerprintRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Масовий імпорт голосувань з CSV
+ *
+ * Формат: рядок заголовка + записи. Обов'язкові колонки: title, question, type.
+ * Необов'язкові: status, multipleAnswers, showResults, options (варіанти через "|").
+ *
+ * Конвеєр:
+ * 1. Файл зберігається у тимчасовий файл і читається потоково (CsvRecordReader)
+ * 2. Записи групуються у пакети по batchSize та валідуються паралельно
+ * 3. Валідні голосування та варіанти вставляються JDBC batch-ами в одній транзакції на пакет
+ * 4. Прогрес, помилки по рядках та швидкість доступні через getJobStatus
+ */
+@Service
+public class CsvImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvImportService.class);
+
+    private static final Set<String> POLL_TYPES = Set.of("SINGLE", "MULTIPLE", "RATING", "OPEN");
+    private static final Set<String> POLL_STATUSES = Set.of("ACTIVE", "CLOSED", "ARCHIVED");
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_OPTION_TEXT_LENGTH = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_KEPT_JOBS = 50;
+    private static final String OPTIONS_SEPARATOR = "\\|";
+
+    private static final String INSERT_POLL_SQL =
+            "INSERT INTO polls (id, title, question, type, status, multiple_answers, show_results, " +
+            "created_at, closed_at, organizer_fingerprint_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO poll_options (id, poll_id, text, order_num) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DeviceFingerprintRepository deviceFingerprintRepository;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private TaskExecutor jobExecutor;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    // ========================================================================
+    // БІЗНЕС-ЛОГІКА: Запуск та стан фонового імпорту
+    // ========================================================================
+
+    /**
+     * Запуск фонового імпорту
+     * Завантажений файл копіюється на диск, бо multipart-файл видаляється після завершення запиту
+     */
+    public CsvImportJobStatusDTO startImport(MultipartFile file, UUID organizerFingerprintId) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("CSV файл порожній");
+        }
+        if (organizerFingerprintId == null || !deviceFingerprintRepository.existsById(organizerFingerprintId)) {
+            throw new IllegalArgumentException("Організатора (fingerprint) не знайдено");
+        }
+
+        Path csvFile = Files.createTempFile("polls-import-", ".csv");
+        file.transferTo(csvFile);
+
+        ImportJob job = new ImportJob(UUID.randomUUID(), file.getOriginalFilename());
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+
+        try {
+            jobExecutor.execute(() -> runImport(job, csvFile, organizerFingerprintId));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(csvFile);
+            throw e;
+        }
+
+        logger.info("Імпорт CSV поставлено в чергу: job={}, file={}", job.id, job.fileName);
+        return job.toStatus();
+    }
+
+    /**
+     * Отримати стан імпорту
+     */
+    public CsvImportJobStatusDTO getJobStatus(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        return job != null ? job.toStatus() : null;
+    }
+
+    // ========================================================================
+    // КОНВЕЄР ІМПОРТУ
+    // ========================================================================
+
+    private void runImport(ImportJob job, Path csvFile, UUID organizerId) {
+        job.start();
+        try (CsvRecordReader reader = new CsvRecordReader(
+                Files.newBufferedReader(csvFile, StandardCharsets.UTF_8))) {
+
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                job.fail("CSV файл не містить заголовка");
+                return;
+            }
+
+            Map<String, Integer> columns = indexHeader(header);
+            for (String required : List.of("title", "question", "type")) {
+                if (!columns.containsKey(required)) {
+                    job.fail("Відсутня обов'язкова колонка: " + required);
+                    return;
+                }
+            }
+
+            List<RawRow> chunk = new ArrayList<>(batchSize);
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                if (CsvRecordReader.isBlank(record)) {
+                    continue;
+                }
+                chunk.add(new RawRow(reader.getRecordStartLine(), record));
+                if (chunk.size() >= batchSize) {
+                    processChunk(job, chunk, columns, organizerId);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, chunk, columns, organizerId);
+            }
+
+            job.complete();
+            logger.info("Імпорт CSV завершено: job={}, рядків={}, імпортовано={}, помилок={}",
+                    job.id, job.rowsRead.get(), job.pollsImported.get(), job.rowsFailed.get());
+        } catch (Exception e) {
+            logger.error("Помилка при імпорті CSV: job={}", job.id, e);
+            job.fail("Імпорт перервано: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(csvFile);
+            } catch (IOException e) {
+                logger.warn("Не вдалося видалити тимчасовий файл: {}", csvFile, e);
+            }
+        }
+    }
+
+    /**
+     * Обробка одного пакета: паралельна валідація + batch-вставка в одній транзакції
+     */
+    private void processChunk(ImportJob job, List<RawRow> chunk,
+                              Map<String, Integer> columns, UUID organizerId) {
+        job.rowsRead.addAndGet(chunk.size());
+
+        // Валідація не залежить від БД, тому виконується паралельно
+        List<ParsedRow> parsed = chunk.parallelStream()
+                .map(row -> parseRow(row, columns))
+                .toList();
+
+        List<ParsedRow> valid = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            if (row.error() != null) {
+                job.addError(row.line(), row.error());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            int options = transactionTemplate.execute(status -> insertBatch(valid, organizerId));
+            job.pollsImported.addAndGet(valid.size());
+            job.optionsImported.addAndGet(options);
+        } catch (DataAccessException e) {
+            String reason = "Помилка БД: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Пакет імпорту відхилено БД: job={}, рядки {}-{}", job.id,
+                    valid.get(0).line(), valid.get(valid.size() - 1).line());
+            valid.forEach(row -> job.addError(row.line(), reason));
+        }
+    }
+
+    private int insertBatch(List<ParsedRow> rows, UUID organizerId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_POLL_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.id());
+            ps.setString(2, row.title());
+            ps.setString(3, row.question());
+            ps.setString(4, row.type());
+            ps.setString(5, row.status());
+            ps.setBoolean(6, row.multipleAnswers());
+            ps.setBoolean(7, row.showResults());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, "ACTIVE".equals(row.status()) ? null : now);
+            ps.setObject(10, organizerId);
+        });
+
+        List<Object[]> options = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            for (int i = 0; i < row.options().size(); i++) {
+                options.add(new Object[]{UUID.randomUUID(), row.id(), row.options().get(i), i});
+            }
+        }
+        if (!options.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, options);
+        }
+        return options.size();
+    }
+
+    // ========================================================================
+    // ВАЛІДАЦІЯ
+    // ========================================================================
+
+    private ParsedRow parseRow(RawRow raw, Map<String, Integer> columns) {
+        String title = column(raw.values(), columns, "title");
+        String question = column(raw.values(), columns, "question");
+        String type = column(raw.values(), columns, "type").toUpperCase(Locale.ROOT);
+        String status = column(raw.values(), columns, "status").toUpperCase(Locale.ROOT);
+
+        if (title.isEmpty()) {
+            return ParsedRow.error(raw.line(), "Назва не може бути пустою");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            return ParsedRow.error(raw.line(), "Назва перевищує " + MAX_TITLE_LENGTH + " символів");
+        }
+        if (question.isEmpty()) {
+            return ParsedRow.error(raw.line(), "Питання не може бути пустим");
+        }
+        if (!POLL_TYPES.contains(type)) {
+            return ParsedRow.error(raw.line(), "Невідомий тип: '" + type + "'");
+        }
+        if (status.isEmpty()) {
+            status = "ACTIVE";
+        } else if (!POLL_STATUSES.contains(status)) {
+            return ParsedRow.error(raw.line(), "Невідомий статус: '" + status + "'");
+        }
+
+        Boolean multipleAnswers = parseBoolean(column(raw.values(), columns, "multipleAnswers"), false);
+        Boolean showResults = parseBoolean(column(raw.values(), columns, "showResults"), true);
+        if (multipleAnswers == null || showResults == null) {
+            return ParsedRow.error(raw.line(), "Неправильне булеве значення (очікується true/false)");
+        }
+
+        List<String> options = new ArrayList<>();
+        String optionsValue = column(raw.values(), columns, "options");
+        if (!optionsValue.isEmpty()) {
+            for (String option : optionsValue.split(OPTIONS_SEPARATOR)) {
+                String text = option.trim();
+                if (text.isEmpty()) {
+                    continue;
+                }
+                if (text.length() > MAX_OPTION_TEXT_LENGTH) {
+                    return ParsedRow.error(raw.line(),
+                            "Текст варіанту перевищує " + MAX_OPTION_TEXT_LENGTH + " символів");
+                }
+                options.add(text);
+            }
+        }
+
+        return new ParsedRow(raw.line(), UUID.randomUUID(), title, question, type, status,
+                multipleAnswers, showResults, options, null);
+    }
+
+    private Map<String, Integer> indexHeader(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        // Ключі зберігаються у нижньому регістрі, тому multipleAnswers/showResults теж
+        return columns;
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name.toLowerCase(Locale.ROOT));
+        if (index == null || index >= values.size()) {
+            return "";
+        }
+        return values.get(index).trim();
+    }
+
+    private Boolean parseBoolean(String value, boolean defaultValue) {
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "так" -> true;
+            case "false", "0", "no", "ні" -> false;
+            default -> null;
+        };
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= MAX_KEPT_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing(job -> job.finishedAt))
+                .limit(jobs.size() - MAX_KEPT_JOBS)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    // ========================================================================
+    // ДОПОМІЖНІ ТИПИ
+    // ========================================================================
+
+    private record RawRow(long line, List<String> values) {}
+
+    private record ParsedRow(long line, UUID id, String title, String question, String type,
+                             String status, boolean multipleAnswers, boolean showResults,
+                             List<String> options, String error) {
+        static ParsedRow error(long line, String error) {
+            return new ParsedRow(line, null, null, null, null, null, false, false, List.of(), error);
+        }
+    }
+
+    /**
+     * Стан однієї задачі імпорту; лічильники оновлюються потоком задачі, читаються з HTTP-запитів
+     */
+    private static class ImportJob {
+        private final UUID id;
+        private final String fileName;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong pollsImported = new AtomicLong();
+        private final AtomicLong optionsImported = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final Queue<CsvImportJobStatusDTO.RowError> errors = new ConcurrentLinkedQueue<>();
+        private volatile String state = "QUEUED";
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt = LocalDateTime.MAX;
+        private volatile long startNanos;
+        private volatile long finishNanos;
+
+        ImportJob(UUID id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+            state = "RUNNING";
+        }
+
+        void complete() {
+            finish("COMPLETED", null);
+        }
+
+        void fail(String reason) {
+            finish("FAILED", reason);
+        }
+
+        private void finish(String newState, String reason) {
+            finishNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            message = reason;
+            state = newState;
+        }
+
+        boolean isFinished() {
+            return "COMPLETED".equals(state) || "FAILED".equals(state);
+        }
+
+        void addError(long line, String error) {
+            rowsFailed.incrementAndGet();
+            if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(new CsvImportJobStatusDTO.RowError(line, error));
+            }
+        }
+
+        CsvImportJobStatusDTO toStatus() {
+            CsvImportJobStatusDTO dto = new CsvImportJobStatusDTO();
+            dto.setJobId(id.toString());
+            dto.setFileName(fileName);
+            dto.setState(state);
+            dto.setMessage(message);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(isFinished() ? finishedAt : null);
+            dto.setRowsRead(rowsRead.get());
+            dto.setPollsImported(pollsImported.get());
+            dto.setOptionsImported(optionsImported.get());
+            dto.setRowsFailed(rowsFailed.get());
+
+            if (startedAt != null) {
+                long end = isFinished() ? finishNanos : System.nanoTime();
+                long elapsedMs = Math.max((end - startNanos) / 1_000_000, 0);
+                dto.setElapsedMs(elapsedMs);
+                double rate = elapsedMs > 0 ? rowsRead.get() * 1000.0 / elapsedMs : 0.0;
+                dto.setRowsPerSecond(Math.round(rate * 100.0) / 100.0);
+            }
+
+            dto.setErrors(new ArrayList<>(errors));
+            dto.setErrorsTruncated(reportedErrors.get() > MAX_REPORTED_ERRORS);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.polls.backend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковий парсер CSV (RFC 4180)
+ * Читає запис за записом із Reader, не завантажуючи весь файл у пам'ять.
+ * Підтримує поля в лапках з комами, подвійними лапками ("") та переносами рядків.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder(128);
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordStartLine;
+    private boolean started;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Прочитати наступний запис
+     *
+     * @return список полів або null, якщо досягнуто кінця файлу
+     * @throws IOException якщо поле в лапках не закрите до кінця файлу
+     */
+    public List<String> readRecord() throws IOException {
+        int c = next();
+        if (!started) {
+            started = true;
+            if (c == BOM) {
+                c = next();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        recordStartLine = line;
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Незакрите поле в лапках, запис з рядка " + recordStartLine);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        next();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    next();
+                }
+                if (c != -1) {
+                    line++;
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+                fieldStart = false;
+            }
+            c = next();
+        }
+    }
+
+    /**
+     * Номер рядка файлу, з якого почався останній прочитаний запис (з 1)
+     */
+    public long getRecordStartLine() {
+        return recordStartLine;
+    }
+
+    /**
+     * Порожній рядок парситься як запис з одним пустим полем
+     */
+    public static boolean isBlank(List<String> record) {
+        return record.size() == 1 && record.get(0).isBlank();
+    }
+
+    private int next() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
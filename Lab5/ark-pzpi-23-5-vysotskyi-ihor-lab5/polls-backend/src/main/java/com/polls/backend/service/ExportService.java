@@ -3,17 +3,25 @@ package com.polls.backend.service;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Text;
 import com.polls.backend.entity.*;
+import com.polls.backend.jfr.JobEvent;
 import com.polls.backend.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.polls.backend.repository.projection.PollExportRow;
+import com.polls.backend.repository.projection.VoteDetailRow;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.itextpdf.kernel.pdf.*;
 import com.itextpdf.layout.*;
@@ -29,6 +37,7 @@ public class ExportService {
     private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
     private static final DateTimeFormatter dateFormatter =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
 
     @Autowired
     private PollRepository pollRepository;
@@ -39,6 +48,9 @@ public class ExportService {
     @Autowired
     private PollService pollService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
@@ -53,6 +65,10 @@ public class ExportService {
      * Обробка потенціальної OutOfMemory - потокова обробка
      */
     public String exportPollToCsv(UUID pollId) {
+        return timed("poll_csv", () -> buildPollCsv(pollId));
+    }
+
+    private String buildPollCsv(UUID pollId) {
         Poll poll = pollRepository.findById(pollId).orElse(null);
         if (poll == null) {
             logger.warn("Poll не знайдено для експорту: {}", pollId);
@@ -103,37 +119,58 @@ public class ExportService {
 
     /**
      * Експорт ВСІХ голосувань системи у CSV
-     * РЕФАКТОРИНГ: Обробка великої кількості даних
+     * РЕФАКТОРИНГ: Один запит з GROUP BY замість countByPoll для кожного голосування (N+1)
+     * Рядки пишуться потоково у UTF-8 одразу в OutputStream, без накопичення у StringBuilder
+     *
+     * @return кількість експортованих голосувань
      */
-    public String exportAllPollsToCsv() {
-        try {
-            List<Poll> polls = pollRepository.findAll();
-            StringBuilder csv = new StringBuilder();
-
-            csv.append("\"ID\",\"Назва\",\"Тип\",\"Статус\",\"Всього голосів\",\"Дата створення\"\n");
+    @Transactional(readOnly = true)
+    public long writeAllPollsCsv(OutputStream out) throws IOException {
+        return timed("all_polls_csv", () -> streamAllPollsCsv(out));
+    }
 
-            for (Poll poll : polls) {
-                long voteCount = voteRepository.countByPoll(poll);
-                csv.append("\"").append(escapeCsv(poll.getId().toString())).append("\",")
-                        .append("\"").append(escapeCsv(poll.getTitle())).append("\",")
-                        .append("\"").append(escapeCsv(poll.getType())).append("\",")
-                        .append("\"").append(escapeCsv(poll.getStatus())).append("\",")
-                        .append(voteCount).append(",")
-                        .append("\"").append(poll.getCreatedAt().format(dateFormatter)).append("\"\n");
+    private long streamAllPollsCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+        long count = 0;
+
+        writer.write("\"ID\",\"Назва\",\"Тип\",\"Статус\",\"Всього голосів\",\"Дата створення\"\n");
+
+        try (Stream<PollExportRow> rows = pollRepository.streamAllWithVoteCounts()) {
+            Iterator<PollExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                PollExportRow row = it.next();
+                writer.write('"');
+                writer.write(row.getId().toString());
+                writer.write("\",\"");
+                writer.write(escapeCsv(row.getTitle()));
+                writer.write("\",\"");
+                writer.write(escapeCsv(row.getType()));
+                writer.write("\",\"");
+                writer.write(escapeCsv(row.getStatus()));
+                writer.write("\",");
+                writer.write(Long.toString(row.getVoteCount()));
+                writer.write(",\"");
+                writer.write(row.getCreatedAt().format(dateFormatter));
+                writer.write("\"\n");
+                count++;
             }
-
-            logger.info("CSV експорт всіх голосувань завершено. Всього: {}", polls.size());
-            return csv.toString();
-        } catch (Exception e) {
-            logger.error("Помилка при експорті всіх голосувань в CSV", e);
-            throw new RuntimeException("Експорт не вдався", e);
         }
+
+        writer.flush();
+        logger.info("CSV експорт всіх голосувань завершено. Всього: {}", count);
+        return count;
     }
 
     /**
      * Експорт деталей голосів для конкретного голосування
+     * РЕФАКТОРИНГ: проекція VoteDetailRow (2 запити) замість Vote + лінивих option / fingerprint на кожен голос
      */
     public String exportVoteDetailsToCsv(UUID pollId) {
+        return timed("vote_details_csv", () -> buildVoteDetailsCsv(pollId));
+    }
+
+    private String buildVoteDetailsCsv(UUID pollId) {
         Poll poll = pollRepository.findById(pollId).orElse(null);
         if (poll == null) {
             logger.warn("Poll не знайдено для експорту деталей: {}", pollId);
@@ -141,17 +178,17 @@ public class ExportService {
         }
 
         try {
-            List<Vote> votes = voteRepository.findByPoll(poll);
+            List<VoteDetailRow> votes = voteRepository.findDetailsByPollId(pollId);
             StringBuilder csv = new StringBuilder();
 
             csv.append("\"Голосування\",\"").append(escapeCsv(poll.getTitle())).append("\"\n\n");
             csv.append("\"Vote ID\",\"Device Fingerprint\",\"Опція\",\"Час голосування\"\n");
 
-            for (Vote vote : votes) {
-                String optionText = vote.getOption() != null ?
-                        vote.getOption().getText() : "Текстова відповідь";
+            for (VoteDetailRow vote : votes) {
+                String optionText = vote.getOptionText() != null ?
+                        vote.getOptionText() : "Текстова відповідь";
                 csv.append("\"").append(escapeCsv(vote.getId().toString())).append("\",")
-                        .append("\"").append(escapeCsv(vote.getFingerprint().getFingerprintHash())).append("\",")
+                        .append("\"").append(escapeCsv(vote.getFingerprintHash())).append("\",")
                         .append("\"").append(escapeCsv(optionText)).append("\",")
                         .append("\"").append(vote.getVotedAt().format(dateFormatter)).append("\"\n");
             }
@@ -185,6 +222,10 @@ public class ExportService {
     }
 
     public byte[] generatePdfBytes(UUID pollId) {
+        return timed("poll_pdf", () -> buildPdfBytes(pollId));
+    }
+
+    private byte[] buildPdfBytes(UUID pollId) {
         Poll poll = pollRepository.findById(pollId).orElse(null);
         if (poll == null) return null;
 
@@ -294,4 +335,47 @@ public class ExportService {
             throw new RuntimeException("Експорт не вдався", e);
         }
     }
-}
\ No newline at end of file
+
+    // ========================================================================
+    // МЕТРИКИ
+    // ========================================================================
+
+    @FunctionalInterface
+    private interface ExportBody<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * polls.export{format, outcome}: outcome = ok / not_found (null) / error
+     * JFR: polls.Job (kind = export) з розміром результату
+     */
+    private <T, E extends Exception> T timed(String format, ExportBody<T, E> body) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        JobEvent event = new JobEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            T result = body.run();
+            outcome = result != null ? "ok" : "not_found";
+            if (result instanceof byte[] bytes) {
+                event.sizeBytes = bytes.length;
+            } else if (result instanceof String text) {
+                event.sizeBytes = text.length();
+            }
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.kind = "export";
+                event.type = format;
+                event.outcome = outcome;
+                event.commit();
+            }
+            sample.stop(Timer.builder("polls.export")
+                    .description("Формування експорту")
+                    .tag("format", format)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.polls.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polls.backend.entity.PollResultSnapshot;
+import com.polls.backend.repository.PollResultSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Заморожені результати закритих / архівованих голосувань
+ *
+ * Після закриття результати не змінюються, тому статистика та метрики обчислюються
+ * один раз і зберігаються в poll_results_snapshots та в пам'яті. Читання для
+ * CLOSED / ARCHIVED голосувань (статистика, метрики, CSV, PDF) не сканують votes.
+ */
+@Service
+public class FrozenResultsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrozenResultsService.class);
+
+    @Autowired
+    private PollResultSnapshotRepository snapshotRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final Map<UUID, FrozenResults> cache = new ConcurrentHashMap<>();
+
+    // Лічильники для метрик (MetricsConfig): пам'ять / таблиця / перерахунок
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Результати у форматі PollService.getPollStatistics / calculateDistributionMetrics
+     */
+    public record FrozenResults(Map<String, Object> statistics, Map<String, Object> metrics) {}
+
+    // Типізована форма для JSON: після десеріалізації UUID та дати мають ті самі типи,
+    // що й у щойно обчисленій статистиці
+    // iotVotes - null у знімках, заморожених до появи iot_vote_options
+    record OptionResult(UUID optionId, String optionText, Long votes, Double percentage, Integer order,
+                        Long iotVotes) {}
+
+    record StatisticsJson(UUID pollId, String pollTitle, String status, LocalDateTime createdAt,
+                          Long totalVotes, List<OptionResult> options, OptionResult leader) {}
+
+    public static boolean isFinal(String status) {
+        return "CLOSED".equals(status) || "ARCHIVED".equals(status);
+    }
+
+    /**
+     * Лише кеш у пам'яті, без запиту до БД
+     * Запис є тільки для голосувань у фінальному статусі
+     */
+    public Optional<FrozenResults> cached(UUID pollId) {
+        FrozenResults cached = cache.get(pollId);
+        if (cached != null) {
+            memoryHits.increment();
+        }
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Кеш у пам'яті, потім таблиця; порожньо, якщо знімка ще немає
+     */
+    public Optional<FrozenResults> find(UUID pollId) {
+        FrozenResults cached = cache.get(pollId);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.of(cached);
+        }
+
+        Optional<PollResultSnapshot> row = snapshotRepository.findById(pollId);
+        if (row.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        try {
+            StatisticsJson stats = objectMapper.readValue(row.get().getStatistics(), StatisticsJson.class);
+            Map<String, Object> metrics = objectMapper.readValue(row.get().getMetrics(),
+                    new TypeReference<LinkedHashMap<String, Object>>() {});
+            FrozenResults results = new FrozenResults(toMap(stats), Collections.unmodifiableMap(metrics));
+            cache.put(pollId, results);
+            databaseHits.increment();
+            return Optional.of(results);
+        } catch (JsonProcessingException e) {
+            // Пошкоджений знімок не блокує читання: буде перераховано
+            misses.increment();
+            logger.warn("⚠️ Не вдалося прочитати знімок результатів для Poll {}: {}", pollId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Записати знімок (повторне закриття / архівування перезаписує його)
+     */
+    public FrozenResults freeze(UUID pollId, Map<String, Object> statistics, Map<String, Object> metrics) {
+        StatisticsJson stats = fromMap(statistics);
+
+        PollResultSnapshot row = new PollResultSnapshot();
+        row.setPollId(pollId);
+        row.setStatus(stats.status());
+        row.setTotalVotes(stats.totalVotes() != null ? stats.totalVotes() : 0L);
+        row.setFrozenAt(LocalDateTime.now());
+        try {
+            row.setStatistics(objectMapper.writeValueAsString(stats));
+            row.setMetrics(objectMapper.writeValueAsString(metrics));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не вдалося серіалізувати результати Poll " + pollId, e);
+        }
+        snapshotRepository.save(row);
+
+        FrozenResults results = new FrozenResults(toMap(stats),
+                Collections.unmodifiableMap(new LinkedHashMap<>(metrics)));
+        cache.put(pollId, results);
+        logger.info("🧊 Результати Poll {} заморожено ({} голосів)", pollId, row.getTotalVotes());
+        return results;
+    }
+
+    /**
+     * Голосування знову відкрите, змінені голоси або видалене
+     */
+    public void discard(UUID pollId) {
+        cache.remove(pollId);
+        snapshotRepository.deleteById(pollId);
+    }
+
+    /**
+     * Відновлення БД: знімки могли застаріти, вони перераховуються при читанні
+     */
+    public void discardAll() {
+        cache.clear();
+        snapshotRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Лише кеш у пам'яті: зміну зробив інший вузол, таблицю він уже оновив
+     */
+    public void forget(UUID pollId) {
+        cache.remove(pollId);
+    }
+
+    public void forgetAll() {
+        cache.clear();
+    }
+
+    public long getMemoryHits() { return memoryHits.sum(); }
+    public long getDatabaseHits() { return databaseHits.sum(); }
+    public long getMisses() { return misses.sum(); }
+
+    // ========================================================================
+    // КОНВЕРТАЦІЯ Map <-> типізована форма
+    // ========================================================================
+
+    @SuppressWarnings("unchecked")
+    private StatisticsJson fromMap(Map<String, Object> stats) {
+        List<OptionResult> options = new ArrayList<>();
+        Object optionsObj = stats.get("options");
+        if (optionsObj instanceof List<?> list) {
+            for (Object o : list) {
+                options.add(optionFromMap((Map<String, Object>) o));
+            }
+        }
+        Object leader = stats.get("leader");
+        return new StatisticsJson(
+                (UUID) stats.get("pollId"),
+                (String) stats.get("pollTitle"),
+                (String) stats.get("status"),
+                (LocalDateTime) stats.get("createdAt"),
+                toLong(stats.get("totalVotes")),
+                options,
+                leader instanceof Map<?, ?> m ? optionFromMap((Map<String, Object>) m) : null);
+    }
+
+    private OptionResult optionFromMap(Map<String, Object> option) {
+        Object percentage = option.get("percentage");
+        return new OptionResult(
+                (UUID) option.get("optionId"),
+                (String) option.get("optionText"),
+                toLong(option.get("votes")),
+                percentage instanceof Number n ? n.doubleValue() : null,
+                (Integer) option.get("order"),
+                toLong(option.get("iotVotes")));
+    }
+
+    private Map<String, Object> toMap(StatisticsJson stats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("pollId", stats.pollId());
+        map.put("pollTitle", stats.pollTitle());
+        map.put("status", stats.status());
+        map.put("createdAt", stats.createdAt());
+        map.put("totalVotes", stats.totalVotes());
+        List<Map<String, Object>> options = stats.options().stream().map(this::optionToMap).toList();
+        map.put("options", options);
+        if (stats.leader() != null) {
+            map.put("leader", optionToMap(stats.leader()));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private Map<String, Object> optionToMap(OptionResult option) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("optionId", option.optionId());
+        map.put("optionText", option.optionText());
+        map.put("votes", option.votes());
+        map.put("percentage", option.percentage());
+        map.put("order", option.order());
+        if (option.iotVotes() != null) {
+            map.put("iotVotes", option.iotVotes());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : null;
+    }
+}
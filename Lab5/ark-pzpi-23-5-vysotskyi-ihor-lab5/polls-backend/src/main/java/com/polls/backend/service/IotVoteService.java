@@ -1,22 +1,36 @@
 package com.polls.backend.service;
 
+import com.polls.backend.cluster.ClusterNotifier;
 import com.polls.backend.entity.IotDevice;
 import com.polls.backend.entity.IotDeviceConfig;
 import com.polls.backend.entity.IotVote;
 import com.polls.backend.entity.Poll;
+import com.polls.backend.entity.PollOption;
+import com.polls.backend.logging.VoteCorrelation;
 import com.polls.backend.repository.IotDeviceRepository;
 import com.polls.backend.repository.IotDeviceConfigRepository;
+import com.polls.backend.repository.IotVoteOptionRepository;
 import com.polls.backend.repository.IotVoteRepository;
+import com.polls.backend.repository.PollOptionRepository;
 import com.polls.backend.repository.PollRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
@@ -34,7 +48,46 @@ public class IotVoteService {
     @Autowired
     private PollRepository pollRepository;
 
+    @Autowired
+    private PollOptionRepository pollOptionRepository;
+
+    @Autowired
+    private IotVoteOptionRepository iotVoteOptionRepository;
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private TextTermsService textTermsService;
+
+    @Autowired
+    private RatingHistogramService ratingHistogramService;
+
+    @Autowired
+    private PollService pollService;
+
+    @Autowired
+    private WebSocketBroadcaster webSocketBroadcaster;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(IotVoteService.class);
+
+    // Роздільники optionIds: "a,b", "a; b", "[\"a\", \"b\"]"
+    private static final Pattern OPTION_SEPARATORS = Pattern.compile("[\\s,;\\[\\]\"]+");
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -113,22 +166,47 @@ public class IotVoteService {
 
     /**
      * Регистрация IoT голоса с вычислением метрик
+     * МЕТРИКИ: polls.iot.votes.register{outcome} - outcome = статус валидации / not_found / poll_closed / error
+     *
+     * CLOSED / ARCHIVED: PollClosedException, як у VoteService - результати вже заморожено
      */
     public IotVote registerIotVote(UUID iotDeviceId, UUID pollId,
                                    Map<String, Object> voteData) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        VoteCorrelation.Scope correlation = VoteCorrelation.open();
+        try {
+            IotVote vote = doRegisterIotVote(iotDeviceId, pollId, voteData);
+            outcome = vote == null ? "not_found" : vote.getValidationStatus().toLowerCase();
+            return vote;
+        } catch (PollClosedException e) {
+            outcome = "poll_closed";
+            throw e;
+        } finally {
+            correlation.close();
+            sample.stop(Timer.builder("polls.iot.votes.register")
+                    .description("Реєстрація IoT-голосу")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private IotVote doRegisterIotVote(UUID iotDeviceId, UUID pollId,
+                                      Map<String, Object> voteData) {
+        // Закрите голосування: відмова з пам'яті, без жодного запиту до БД
+        if (pollStatusRegistry.isClosed(pollId)) {
+            throw new PollClosedException();
+        }
+
         // Получить устройство и конфиг
         Optional<IotDevice> deviceOpt = iotDeviceRepository.findById(iotDeviceId);
         Optional<Poll> pollOpt = pollRepository.findById(pollId);
         Optional<IotDeviceConfig> configOpt = iotDeviceConfigRepository
                 .findByIotDeviceId(iotDeviceId);
 
-        System.out.println("🔍 DEBUG registerIotVote:");
-        System.out.println("  iotDeviceId: " + iotDeviceId + " -> found: " + deviceOpt.isPresent());
-        System.out.println("  pollId: " + pollId + " -> found: " + pollOpt.isPresent());
-        System.out.println("  configOpt: " + configOpt.isPresent());
-
         if (deviceOpt.isEmpty() || pollOpt.isEmpty() || configOpt.isEmpty()) {
-            logger.warn("Device, Poll or Config not found");
+            logger.warn("Device, Poll or Config not found: device={} ({}), poll={} ({}), config={}",
+                    iotDeviceId, deviceOpt.isPresent(), pollId, pollOpt.isPresent(), configOpt.isPresent());
             return null;
         }
 
@@ -136,6 +214,11 @@ public class IotVoteService {
         Poll poll = pollOpt.get();
         IotDeviceConfig config = configOpt.get();
 
+        pollStatusRegistry.record(poll);
+        if (FrozenResultsService.isFinal(poll.getStatus())) {
+            throw new PollClosedException();
+        }
+
         // Извлечь время голосования
         long votingTimeMs = ((Number) voteData.get("votingTimeMs")).longValue();
 
@@ -149,6 +232,12 @@ public class IotVoteService {
         String validationStatus = getValidationStatus(confidence, anomalyScore,
                 config.getAnomalyThreshold());
 
+        // МЕТРИКИ: розподіл оцінки аномальності (зсув у бік ботів видно на гістограмі)
+        DistributionSummary.builder("polls.iot.votes.anomaly.score")
+                .description("Оцінка аномальності часу голосування")
+                .register(meterRegistry)
+                .record(anomalyScore);
+
         // Создать голос
         IotVote vote = new IotVote();
         vote.setIotDevice(device);
@@ -161,21 +250,35 @@ public class IotVoteService {
         vote.setValidationStatus(validationStatus);
 
         // Заполнить данные в зависимости от типа опроса
+        // SINGLE / MULTIPLE: вибрані варіанти - рядки iot_vote_options (підрахунок по індексу)
+        Set<PollOption> selected = new LinkedHashSet<>();
         switch (poll.getType()) {
             case "SINGLE":
                 String optionId = (String) voteData.get("optionId");
                 if (optionId != null) {
-                    vote.setOption(null); // TODO: получить PollOption
+                    selected = resolveOptions(poll, List.of(optionId));
+                    vote.setOption(selected.iterator().next());
                 }
                 break;
 
             case "MULTIPLE":
                 String optionIds = (String) voteData.get("optionIds");
-                vote.setOptionIds(optionIds);
+                if (optionIds != null) {
+                    selected = resolveOptions(poll, List.of(OPTION_SEPARATORS.split(optionIds)));
+                    // Текстова колонка лишається для сумісності API: канонічний список id через кому
+                    vote.setOptionIds(selected.stream()
+                            .map(option -> option.getId().toString())
+                            .collect(Collectors.joining(",")));
+                }
                 break;
 
             case "RATING":
                 Integer rating = (Integer) voteData.get("rating");
+                // Шкала 1..max-rating: оцінка поза нею зіпсувала б гістограму голосування
+                if (rating != null && (rating < 1 || rating > ratingHistogramService.getMaxRating())) {
+                    throw new IllegalArgumentException("Rating must be between 1 and "
+                            + ratingHistogramService.getMaxRating());
+                }
                 vote.setRating(rating);
                 break;
 
@@ -211,14 +314,79 @@ public class IotVoteService {
             logger.error("Error serializing device metadata", e);
         }
 
-        IotVote savedVote = iotVoteRepository.save(vote);
+        // Голос, вибрані варіанти та їхні шардовані лічильники - одна транзакція
+        // REJECTED (явний бот) зберігається лише для аудиту: без варіантів і лічильників
+        Set<PollOption> selection = "REJECTED".equals(validationStatus) ? Set.of() : selected;
+        // Статус повторно під FOR SHARE, як у VoteService: закриття чекає на коміт голосу
+        IotVote savedVote = transactionTemplate.execute(status -> {
+            if (FrozenResultsService.isFinal(pollRepository.lockStatusForShare(poll.getId()))) {
+                throw new PollClosedException();
+            }
+            IotVote saved = iotVoteRepository.save(vote);
+            for (PollOption option : selection) {
+                iotVoteOptionRepository.add(saved.getId(), option.getId(), poll.getId());
+                voteCounterService.incrementIot(poll.getId(), option.getId());
+            }
+            return saved;
+        });
+        pollTallyCache.bump(poll.getId());
+        clusterNotifier.votesChanged(poll.getId());
+        textTermsService.record(poll.getId(), savedVote.getTextAnswer());
+        // Сюди доходять лише збережені голоси відкритих голосувань (CLOSED / ARCHIVED - вище);
+        // оцінки REJECTED не входять у медіану / p90, як і їхні варіанти
+        if (!"REJECTED".equals(validationStatus)) {
+            ratingHistogramService.record(poll.getId(), device.getId(), savedVote.getRating());
+        }
+
+        // Як у VoteService: звичайний голос - DEBUG; SUSPICIOUS / REJECTED рідкісні й цікаві - INFO
+        if ("APPROVED".equals(validationStatus)) {
+            logger.debug("IoT Vote registered: {} | Confidence: {} | Anomaly: {} | Status: {}",
+                    savedVote.getId(), confidence, anomalyScore, validationStatus);
+        } else {
+            logger.info("IoT Vote registered: {} | Confidence: {} | Anomaly: {} | Status: {}",
+                    savedVote.getId(), confidence, anomalyScore, validationStatus);
+        }
 
-        logger.info("IoT Vote registered: {} | Confidence: {} | Anomaly: {} | Status: {}",
-                savedVote.getId(), confidence, anomalyScore, validationStatus);
+        // Вибори кіосків входять у результати за варіантами - розіслати оновлені
+        if (!selection.isEmpty()) {
+            try {
+                long version = pollTallyCache.version(poll.getId());
+                webSocketBroadcaster.broadcastPollResults(poll.getId(), version,
+                        pollService.getPollStatistics(poll.getId()));
+            } catch (Exception e) {
+                logger.error("❌ Помилка при трансляції результатів через WebSocket", e);
+            }
+        }
 
         return savedVote;
     }
 
+    /**
+     * id варіантів з запиту кіоска -> варіанти цього голосування (без повторів, у порядку запиту)
+     * Список варіантів - з кешу запитів (findByPollOrderByOrderNum), без запиту на кожен id
+     *
+     * @throws IllegalArgumentException некоректний UUID або варіант іншого голосування
+     */
+    private Set<PollOption> resolveOptions(Poll poll, List<String> rawIds) {
+        Map<UUID, PollOption> options = pollOptionRepository.findByPollOrderByOrderNum(poll).stream()
+                .collect(Collectors.toMap(PollOption::getId, option -> option));
+        Set<PollOption> selected = new LinkedHashSet<>();
+        for (String raw : rawIds) {
+            if (raw.isBlank()) {
+                continue;
+            }
+            PollOption option = options.get(UUID.fromString(raw.trim()));
+            if (option == null) {
+                throw new IllegalArgumentException("Option does not belong to poll: " + raw.trim());
+            }
+            selected.add(option);
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("No options selected");
+        }
+        return selected;
+    }
+
     /**
      * Получить статистику киоска
      */
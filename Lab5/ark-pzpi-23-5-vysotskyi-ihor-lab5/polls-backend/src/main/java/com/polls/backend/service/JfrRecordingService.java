@@ -0,0 +1,174 @@
+package com.polls.backend.service;
+
+import com.polls.backend.jfr.JfrAnalyzer;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Запис JFR на працюючому сервері (без перезапуску з -XX:StartFlightRecording)
+ *
+ * Одночасно активний лише один запис: профіль JDK "default" (низькі накладні витрати)
+ * плюс усі події polls.* (VoteStage, Broadcast, Job) та jdk.VirtualThreadPinned від 5 мс.
+ * Дамп пишеться в jfr.directory
+ * і може бути проаналізований через JfrAnalyzer.
+ */
+@Service
+public class JfrRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final String[] POLLS_EVENTS = {"polls.VoteStage", "polls.Broadcast", "polls.Job"};
+
+    @Value("${jfr.directory:./jfr}")
+    private String jfrDir;
+
+    // ReentrantLock замість synchronized: дамп пише файл, не блокуючи носій віртуального потоку
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    /**
+     * Почати запис; maxAge / maxSize обмежують кільцевий буфер (null = без обмеження)
+     */
+    public Map<String, Object> start(Duration maxAge, Long maxSizeBytes) throws IOException, ParseException {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new IllegalStateException("Запис JFR вже активний: " + recording.getName());
+            }
+            closeRecording();
+
+            Recording created = new Recording(Configuration.getConfiguration("default"));
+            created.setName("polls-" + LocalDateTime.now().format(FILE_TIMESTAMP));
+            for (String event : POLLS_EVENTS) {
+                created.enable(event).withoutStackTrace();
+            }
+            // Віртуальний потік, що тримав носій (synchronized / native): зі стеком, щоб знайти місце
+            created.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(5)).withStackTrace();
+            if (maxAge != null) {
+                created.setMaxAge(maxAge);
+            }
+            if (maxSizeBytes != null) {
+                created.setMaxSize(maxSizeBytes);
+            }
+            created.setToDisk(true);
+            created.start();
+            recording = created;
+
+            logger.info("🎬 Запис JFR {} розпочато", created.getName());
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Зупинити запис і зберегти його у файл
+     */
+    public Map<String, Object> stop() throws IOException {
+        lock.lock();
+        try {
+            Recording active = requireRecording();
+            if (active.getState() == RecordingState.RUNNING) {
+                active.stop();
+            }
+            Path file = write(active);
+            closeRecording();
+            logger.info("⏹️ Запис JFR зупинено: {}", file);
+            return fileInfo(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Зберегти поточний вміст запису, не зупиняючи його
+     */
+    public Map<String, Object> dump() throws IOException {
+        lock.lock();
+        try {
+            Path file = write(requireRecording());
+            logger.info("💾 Дамп JFR: {}", file);
+            return fileInfo(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("active", recording != null && recording.getState() == RecordingState.RUNNING);
+            if (recording != null) {
+                status.put("name", recording.getName());
+                status.put("state", recording.getState().name());
+                status.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+                status.put("maxAge", recording.getMaxAge() != null ? recording.getMaxAge().toString() : null);
+                status.put("maxSize", recording.getMaxSize());
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Зведення найповільніших етапів зі збереженого файлу з jfr.directory
+     */
+    public Map<String, Object> summarize(String fileName, int top) throws IOException {
+        Path dir = Paths.get(jfrDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(fileName).normalize();
+        // Лише файли з каталогу записів
+        if (!file.startsWith(dir) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Файл запису не знайдено: " + fileName);
+        }
+        return JfrAnalyzer.summarize(file, top);
+    }
+
+    private Recording requireRecording() {
+        if (recording == null) {
+            throw new IllegalStateException("Немає активного запису JFR");
+        }
+        return recording;
+    }
+
+    private Path write(Recording source) throws IOException {
+        Path dir = Paths.get(jfrDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(source.getName() + "_" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        source.dump(file);
+        return file;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Map<String, Object> fileInfo(Path file) throws IOException {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("file", file.getFileName().toString());
+        info.put("path", file.toAbsolutePath().toString());
+        info.put("sizeBytes", Files.size(file));
+        return info;
+    }
+}
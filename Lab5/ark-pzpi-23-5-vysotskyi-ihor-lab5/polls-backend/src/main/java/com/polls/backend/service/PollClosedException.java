@@ -0,0 +1,12 @@
+package com.polls.backend.service;
+
+/**
+ * Голос у CLOSED / ARCHIVED голосуванні: результати заморожено, голос не приймається
+ * Контролери віддають 409 POLL_CLOSED лише на цей виняток, а не на будь-який IllegalStateException
+ */
+public class PollClosedException extends RuntimeException {
+
+    public PollClosedException() {
+        super("Голосування закрито");
+    }
+}
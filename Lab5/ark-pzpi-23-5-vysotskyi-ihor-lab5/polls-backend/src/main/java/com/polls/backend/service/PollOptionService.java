@@ -1,5 +1,6 @@
 package com.polls.backend.service;
 
+import com.polls.backend.cluster.ClusterNotifier;
 import com.polls.backend.entity.*;
 import com.polls.backend.repository.*;
 import org.slf4j.Logger;
@@ -22,6 +23,18 @@ public class PollOptionService {
     @Autowired
     private PollRepository pollRepository;
 
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
     // ========================================================================
     // БІЗНЕС-ЛОГІКА: Управління варіантами з валідацією orderNum
     // ========================================================================
@@ -83,6 +96,9 @@ public class PollOptionService {
         option.setOrderNum(nextOrderNum);
 
         PollOption saved = pollOptionRepository.save(option);
+        pollTallyCache.bump(pollId);
+        pollStatusRegistry.evictOptions(pollId);
+        clusterNotifier.pollChanged(pollId);
         logger.info("Варіант додано для Poll {}: '{}' з orderNum {}", pollId, text, nextOrderNum);
 
         return saved;
@@ -133,6 +149,9 @@ public class PollOptionService {
         option.setOrderNum(orderNum);
 
         PollOption saved = pollOptionRepository.save(option);
+        pollTallyCache.bump(pollId);
+        pollStatusRegistry.evictOptions(pollId);
+        clusterNotifier.pollChanged(pollId);
         logger.info("Варіант з orderNum {} додано для Poll {}: '{}'",
                 orderNum, pollId, text);
 
@@ -198,8 +217,14 @@ public class PollOptionService {
      * Видалення варіанту з логуванням
      */
     public boolean deleteOption(UUID optionId) {
-        if (pollOptionRepository.existsById(optionId)) {
+        Optional<PollOption> option = pollOptionRepository.findById(optionId);
+        if (option.isPresent()) {
             pollOptionRepository.deleteById(optionId);
+            // Голоси варіанту видалено каскадом - разом з ними і його лічильники
+            voteCounterService.forgetOption(option.get().getPoll().getId(), optionId);
+            pollTallyCache.bump(option.get().getPoll().getId());
+            pollStatusRegistry.evictOptions(option.get().getPoll().getId());
+            clusterNotifier.pollChanged(option.get().getPoll().getId());
             logger.info("Варіант видален: {}", optionId);
             return true;
         }
@@ -220,6 +245,9 @@ public class PollOptionService {
                 option.setOrderNum(i);
                 pollOptionRepository.save(option);
             }
+            pollTallyCache.bump(pollId);
+            pollStatusRegistry.evictOptions(pollId);
+            clusterNotifier.pollChanged(pollId);
             logger.info("Варіанти переупорядковано для Poll: {}", pollId);
         } catch (Exception e) {
             logger.error("Помилка при переупорядкуванні варіантів для Poll: {}", pollId, e);
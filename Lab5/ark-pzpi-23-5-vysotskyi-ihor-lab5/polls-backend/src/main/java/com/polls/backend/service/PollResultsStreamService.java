@@ -0,0 +1,281 @@
+package com.polls.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Server-Sent Events: GET /api/polls/{id}/results/stream
+ *
+ * Для віджетів і табло, що не можуть тримати WebSocket через проксі. Джерело -
+ * той самий потік, що й тема polls/{id}/results: WebSocketBroadcaster.broadcastPollResults
+ * (голоси цього вузла та ретрансляція ClusterListener з інших вузлів).
+ *
+ * Подія серіалізується один раз і розсилається всім емітерам голосування. Кожна
+ * подія - повний стан результатів, тому повільному клієнту проміжні не потрібні:
+ * емітер тримає лише останню невідправлену подію, відправка - окремою задачею,
+ * потік голосування не чекає на мережу.
+ *
+ * id події = PollTallyCache.eventId(версія). Last-Event-ID з поточною версією -
+ * знімок не надсилається (клієнт уже має цей стан); інакше першою йде поточна
+ * статистика. Версії - в пам'яті вузла, тому після перепідключення до іншого вузла
+ * id не збігається і клієнт просто отримує свіжий знімок.
+ */
+@Service
+public class PollResultsStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollResultsStreamService.class);
+    private static final String EVENT_NAME = "poll_results_update";
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> PING = SseEmitter.event().comment("ping").build();
+
+    @Value("${polls.sse.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${polls.sse.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${polls.sse.retry-ms:3000}")
+    private long retryMs;
+
+    @Value("${polls.sse.max-connections:10000}")
+    private int maxConnections;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private PollService pollService;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private ExecutorService sender;
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     * Один клієнт: емітер і остання ще не відправлена подія
+     */
+    private final class Subscriber {
+        final UUID pollId;
+        final SseEmitter emitter;
+        final AtomicReference<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new AtomicReference<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(UUID pollId, SseEmitter emitter) {
+            this.pollId = pollId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Замінити невідправлену подію новішою і запустити відправку, якщо вона не йде
+         */
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            Set<ResponseBodyEmitter.DataWithMediaType> replaced = pending.getAndSet(event);
+            if (replaced != null && replaced != PING) {
+                meterRegistry.counter("polls.sse.events", "outcome", "superseded").increment();
+            }
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while ((event = pending.getAndSet(null)) != null && !closed.get()) {
+                    emitter.send(event);
+                    if (event != PING) {
+                        meterRegistry.counter("polls.sse.events", "outcome", "sent").increment();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клієнт відключився: Spring завершить емітер, onError / onCompletion приберуть його
+                logger.debug("SSE poll={} відправка не вдалася: {}", pollId, e.getMessage());
+                meterRegistry.counter("polls.sse.events", "outcome", "error").increment();
+                remove(this);
+            } finally {
+                sending.set(false);
+            }
+            // Подія могла прийти між останнім getAndSet і скиданням прапорця
+            if (pending.get() != null && !closed.get() && sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        ThreadFactory factory = virtualThreads
+                ? Thread.ofVirtual().name("sse-send-", 0).factory()
+                : Thread.ofPlatform().name("sse-send-", 0).daemon().factory();
+        sender = Executors.newThreadPerTaskExecutor(factory);
+
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        Gauge.builder("polls.sse.connections", connections, AtomicInteger::get)
+                .description("Відкриті SSE-з'єднання результатів")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * Новий потік результатів голосування
+     *
+     * @return null, якщо голосування не існує
+     * @throws IllegalStateException ліміт з'єднань вузла вичерпано
+     */
+    public SseEmitter subscribe(UUID pollId, String lastEventId) {
+        if (pollService.getPollById(pollId) == null) {
+            return null;
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            meterRegistry.counter("polls.sse.subscribe", "outcome", "rejected").increment();
+            throw new IllegalStateException("Забагато SSE-з'єднань");
+        }
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(pollId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // Спершу в підписники: оновлення між знімком і підпискою не губляться
+        subscribers.computeIfAbsent(pollId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        // Версію читаємо до обчислення знімка (див. PollTallyCache.body)
+        long version = pollTallyCache.version(pollId);
+        String eventId = pollTallyCache.eventId(version);
+        String outcome;
+        if (eventId.equals(lastEventId)) {
+            outcome = "resumed";
+        } else {
+            byte[] snapshot = pollTallyCache.body(pollId, "sse-snapshot", version,
+                    () -> frame(pollId, pollService.getPollStatistics(pollId), version, true));
+            if (snapshot != null) {
+                subscriber.offer(event(eventId, snapshot));
+            }
+            outcome = lastEventId != null ? "stale" : "new";
+        }
+        meterRegistry.counter("polls.sse.subscribe", "outcome", outcome).increment();
+        logger.debug("📺 SSE підписка poll={} ({})", pollId, outcome);
+        return emitter;
+    }
+
+    public boolean hasSubscribers(UUID pollId) {
+        return subscribers.containsKey(pollId);
+    }
+
+    /**
+     * Нова статистика голосування: одна серіалізація на всіх емітерів
+     */
+    public void publish(UUID pollId, long version, Map<String, Object> statistics) {
+        Set<Subscriber> targets = subscribers.get(pollId);
+        if (targets == null || targets.isEmpty() || statistics == null) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> event =
+                event(pollTallyCache.eventId(version), frame(pollId, statistics, version, false));
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     * Той самий JSON, що й кадр WebSocket-теми polls/{id}/results
+     */
+    private byte[] frame(UUID pollId, Map<String, Object> statistics, long version, boolean snapshot) {
+        if (statistics == null) {
+            return null;
+        }
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", EVENT_NAME);
+        frame.put("topic", "polls/" + pollId + "/results");
+        frame.put("data", statistics);
+        if (snapshot) {
+            frame.put("snapshot", true);
+        }
+        frame.put("version", version);
+        frame.put("timestamp", System.currentTimeMillis());
+        try {
+            return objectMapper.writeValueAsBytes(frame);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Готова подія: id / event / retry та data одним рядком (JSON без переносів)
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String id, byte[] json) {
+        return SseEmitter.event()
+                .id(id)
+                .name(EVENT_NAME)
+                .reconnectTime(retryMs)
+                .data(new String(json, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * Коментар-серцебиття: проксі не закривають "тихе" з'єднання, мертві емітери виявляються
+     */
+    private void sendHeartbeats() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                if (subscriber.pending.get() == null) {
+                    subscriber.offer(PING);
+                }
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.pollId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
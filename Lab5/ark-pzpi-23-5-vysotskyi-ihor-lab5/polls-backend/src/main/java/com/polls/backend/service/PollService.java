@@ -1,9 +1,12 @@
 package com.polls.backend.service;
 
+import com.polls.backend.cluster.ClusterNotifier;
 import com.polls.backend.dto.UpdatePollRequestDTO;
 import com.polls.backend.entity.*;
 import com.polls.backend.repository.*;
+import com.polls.backend.repository.projection.OptionTallyRow;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -24,6 +27,24 @@ public class PollService {
     @Autowired
     private AdminLogRepository adminLogRepository;
 
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private FrozenResultsService frozenResultsService;
+
+    @Autowired
+    private RatingHistogramService ratingHistogramService;
+
     // ========================================================================
     // БІЗНЕС-ЛОГІКА: Управління голосуваннями
     // ========================================================================
@@ -60,6 +81,7 @@ public class PollService {
         }
 
         Poll poll = pollOpt.get();
+        String previousStatus = poll.getStatus();
 
         if (request.getTitle() != null && !request.getTitle().isEmpty()) {
             poll.setTitle(request.getTitle());
@@ -74,7 +96,25 @@ public class PollService {
             poll.setShowResults(request.getShowResults());
         }
 
-        return pollRepository.save(poll);
+        Poll saved = pollRepository.save(poll);
+        pollTallyCache.bump(id);
+        pollStatusRegistry.update(saved);
+        clusterNotifier.pollChanged(id);
+
+        // Зміна статусу: гістограми кіосків засіваються заново з iot_votes (знімок і
+        // живі метрики після розморожування рахуються з таблиці, а не з пам'яті)
+        // Назва / питання / showResults на оцінки не впливають - гістограми лишаються
+        if (!Objects.equals(previousStatus, saved.getStatus())) {
+            ratingHistogramService.forget(id);
+        }
+
+        // Назва / статус входять у знімок: перезаморозити або скинути
+        if (FrozenResultsService.isFinal(saved.getStatus())) {
+            freezeResults(saved);
+        } else {
+            frozenResultsService.discard(id);
+        }
+        return saved;
     }
 
     /**
@@ -134,7 +174,16 @@ public class PollService {
             logAdminAction(adminId, "CLOSE_POLL", "Poll", pollId,
                     "Closed poll: " + poll.getTitle());
 
-            return pollRepository.save(poll);
+            // UPDATE polls чекає на голоси, що тримають рядок FOR SHARE (lockStatusForShare),
+            // а нові голоси після коміту бачать CLOSED: знімок нижче містить усі прийняті голоси
+            Poll saved = pollRepository.save(poll);
+            pollTallyCache.bump(pollId);
+            pollStatusRegistry.update(saved);
+            clusterNotifier.pollChanged(pollId);
+
+            // Результати більше не змінюються: один раз обчислити та заморозити
+            freezeResults(saved);
+            return saved;
         }
         return null;
     }
@@ -151,7 +200,13 @@ public class PollService {
             logAdminAction(adminId, "ARCHIVE_POLL", "Poll", pollId,
                     "Archived poll: " + poll.getTitle());
 
-            return pollRepository.save(poll);
+            // Як у closePoll: UPDATE серіалізується з голосами через FOR SHARE
+            Poll saved = pollRepository.save(poll);
+            pollTallyCache.bump(pollId);
+            pollStatusRegistry.update(saved);
+            clusterNotifier.pollChanged(pollId);
+            freezeResults(saved);
+            return saved;
         }
         return null;
     }
@@ -166,7 +221,12 @@ public class PollService {
             logAdminAction(adminId, "DELETE_POLL", "Poll", pollId,
                     "Deleted poll: " + poll.getTitle());
 
+            frozenResultsService.discard(pollId);
             pollRepository.deleteById(pollId);
+            ratingHistogramService.forget(pollId);
+            pollTallyCache.bump(pollId);
+            pollStatusRegistry.evict(pollId);
+            clusterNotifier.pollChanged(pollId);
             return true;
         }
         return false;
@@ -182,15 +242,30 @@ public class PollService {
      * 1. Підрахунок голосів per option
      * 2. Розрахунок відсотків: percentage = (votes / total) * 100
      * 3. Визначення переможця (max votes)
+     *
+     * CLOSED / ARCHIVED: із замороженого знімка, без сканування votes
+     * РЕФАКТОРИНГ: проекція OptionTallyRow (GROUP BY) замість усіх Vote та лінивого poll.getOptions()
      */
     public Map<String, Object> getPollStatistics(UUID pollId) {
+        Optional<FrozenResultsService.FrozenResults> cached = frozenResultsService.cached(pollId);
+        if (cached.isPresent()) {
+            return cached.get().statistics();
+        }
+
         Optional<Poll> pollOpt = pollRepository.findById(pollId);
         if (pollOpt.isEmpty()) {
             return null;
         }
 
         Poll poll = pollOpt.get();
-        List<Vote> votes = voteRepository.findByPoll(poll);
+        if (FrozenResultsService.isFinal(poll.getStatus())) {
+            return frozenResults(poll).statistics();
+        }
+        return computeStatistics(poll, pollOptionRepository.findTalliesByPollId(pollId));
+    }
+
+    private Map<String, Object> computeStatistics(Poll poll, List<OptionTallyRow> tallies) {
+        UUID pollId = poll.getId();
 
         Map<String, Object> stats = new LinkedHashMap<>();
         stats.put("pollId", pollId);
@@ -198,34 +273,33 @@ public class PollService {
         stats.put("status", poll.getStatus());
         stats.put("createdAt", poll.getCreatedAt());
 
-        // Загальна кількість голосів
-        long totalVotes = votes.size();
+        // Загальна кількість голосів (включно з текстовими відповідями без варіанту та виборами кіосків)
+        // РЕФАКТОРИНГ: SUM шардованих лічильників замість COUNT(*) по votes
+        long totalVotes = voteCounterService.totalVotes(pollId);
         stats.put("totalVotes", totalVotes);
 
         // Статистика по кожному варіанту
         List<Map<String, Object>> optionStats = new ArrayList<>();
-        if (poll.getOptions() != null) {
-            for (PollOption option : poll.getOptions()) {
-                Map<String, Object> optionData = new LinkedHashMap<>();
-
-                // МАТЕМАТИКА: Підрахунок голосів за варіантом
-                long votesForOption = votes.stream()
-                        .filter(v -> v.getOption() != null && v.getOption().getId().equals(option.getId()))
-                        .count();
-
-                // МАТЕМАТИКА: Розрахунок відсотка
-                double percentage = totalVotes > 0
-                        ? (votesForOption * 100.0) / totalVotes
-                        : 0.0;
-
-                optionData.put("optionId", option.getId());
-                optionData.put("optionText", option.getText());
-                optionData.put("votes", votesForOption);
-                optionData.put("percentage", Math.round(percentage * 100.0) / 100.0);
-                optionData.put("order", option.getOrderNum());
-
-                optionStats.add(optionData);
-            }
+        for (OptionTallyRow option : tallies) {
+            Map<String, Object> optionData = new LinkedHashMap<>();
+
+            // МАТЕМАТИКА: Підрахунок голосів за варіантом (COUNT у запиті)
+            long votesForOption = option.getVotes();
+
+            // МАТЕМАТИКА: Розрахунок відсотка
+            double percentage = totalVotes > 0
+                    ? (votesForOption * 100.0) / totalVotes
+                    : 0.0;
+
+            optionData.put("optionId", option.getOptionId());
+            optionData.put("optionText", option.getOptionText());
+            optionData.put("votes", votesForOption);
+            optionData.put("percentage", Math.round(percentage * 100.0) / 100.0);
+            optionData.put("order", option.getOrderNum());
+            // Частка кіосків у votes (лічильник iot_votes)
+            optionData.put("iotVotes", option.getIotVotes());
+
+            optionStats.add(optionData);
         }
 
         stats.put("options", optionStats);
@@ -247,48 +321,77 @@ public class PollService {
      * 1. Середнє значення (Mean)
      * 2. Стандартне відхилення (Standard Deviation)
      * 3. Коефіцієнт варіації (Variation Coefficient)
+     * 4. Медіана, 90-й перцентиль і гістограма оцінок (RatingHistogram)
+     *
+     * CLOSED / ARCHIVED: із замороженого знімка, без сканування votes
      */
-    public Map<String, Double> calculateDistributionMetrics(UUID pollId) {
+    public Map<String, Object> calculateDistributionMetrics(UUID pollId) {
+        Optional<FrozenResultsService.FrozenResults> cached = frozenResultsService.cached(pollId);
+        if (cached.isPresent()) {
+            return cached.get().metrics();
+        }
+
         Optional<Poll> pollOpt = pollRepository.findById(pollId);
         if (pollOpt.isEmpty()) {
             return new HashMap<>();
         }
 
         Poll poll = pollOpt.get();
-        List<Vote> allVotes = voteRepository.findByPoll(poll);
+        if (FrozenResultsService.isFinal(poll.getStatus())) {
+            return frozenResults(poll).metrics();
+        }
+        return computeMetrics(poll, pollOptionRepository.findTalliesByPollId(pollId));
+    }
 
-        List<Double> ratingValues = new ArrayList<>();
+    /**
+     * МАТЕМАТИКА: рейтинг варіанту r = orderNum + 1, c - кількість голосів за ним
+     * Лічильники варіантів (веб-голоси та вибори кіосків) - це вже гістограма; для RATING
+     * до неї зливаються гістограми оцінок кіосків (IotVote.rating, без варіанту).
+     * Усі показники - за O(кошиків), не O(голосів)
+     */
+    private Map<String, Object> computeMetrics(Poll poll, List<OptionTallyRow> tallies) {
+        RatingHistogram histogram = new RatingHistogram();
+        for (OptionTallyRow option : tallies) {
+            histogram.add(option.getOrderNum() + 1, option.getVotes());
+        }
 
-        for (Vote vote : allVotes) {
-            if (vote.getOption() != null) {
-                double ratingValue = vote.getOption().getOrderNum() + 1;
-                ratingValues.add(ratingValue);
+        // Кожен кіоск окремо, а голосування - сума їхніх гістограм
+        List<Map<String, Object>> kiosks = new ArrayList<>();
+        if (RatingHistogramService.RATING.equals(poll.getType())) {
+            for (Map.Entry<UUID, RatingHistogram> kiosk : ratingHistogramService.kioskHistograms(poll.getId()).entrySet()) {
+                RatingHistogram kioskHistogram = kiosk.getValue();
+                histogram.merge(kioskHistogram);
+
+                Map<String, Object> kioskData = new LinkedHashMap<>();
+                kioskData.put("iotDeviceId", kiosk.getKey());
+                kioskData.put("votes", kioskHistogram.getTotal());
+                kioskData.put("median", (double) kioskHistogram.quantile(0.5));
+                kioskData.put("p90", (double) kioskHistogram.quantile(0.9));
+                kiosks.add(kioskData);
             }
         }
 
-        Map<String, Double> metrics = new LinkedHashMap<>();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long count = histogram.getTotal();
 
-        if (ratingValues.isEmpty()) {
+        if (count == 0) {
             metrics.put("mean", 0.0);
             metrics.put("stdDeviation", 0.0);
             metrics.put("coefficientOfVariation", 0.0);
             metrics.put("min", 0.0);
             metrics.put("max", 0.0);
             metrics.put("totalVotes", 0.0);
+            metrics.put("median", 0.0);
+            metrics.put("p90", 0.0);
+            metrics.put("histogram", List.of());
+            metrics.put("kiosks", kiosks);
             return metrics;
         }
 
-        double sum = ratingValues.stream()
-                .mapToDouble(Double::doubleValue)
-                .sum();
-        double mean = sum / ratingValues.size();
+        double mean = histogram.mean();
         metrics.put("mean", Math.round(mean * 100.0) / 100.0);
 
-        double variance = ratingValues.stream()
-                .mapToDouble(value -> Math.pow(value - mean, 2))
-                .average()
-                .orElse(0.0);
-        double stdDeviation = Math.sqrt(variance);
+        double stdDeviation = Math.sqrt(histogram.variance());
         metrics.put("stdDeviation", Math.round(stdDeviation * 100.0) / 100.0);
 
         double coefficientOfVariation = (mean != 0)
@@ -296,18 +399,15 @@ public class PollService {
                 : 0.0;
         metrics.put("coefficientOfVariation", Math.round(coefficientOfVariation * 100.0) / 100.0);
 
-        double min = ratingValues.stream()
-                .mapToDouble(Double::doubleValue)
-                .min()
-                .orElse(0.0);
-        double max = ratingValues.stream()
-                .mapToDouble(Double::doubleValue)
-                .max()
-                .orElse(0.0);
+        metrics.put("min", (double) histogram.min());
+        metrics.put("max", (double) histogram.max());
+        metrics.put("totalVotes", (double) count);
 
-        metrics.put("min", min);
-        metrics.put("max", max);
-        metrics.put("totalVotes", (double) ratingValues.size());
+        // МАТЕМАТИКА: квантилі nearest-rank по кошиках
+        metrics.put("median", (double) histogram.quantile(0.5));
+        metrics.put("p90", (double) histogram.quantile(0.9));
+        metrics.put("histogram", histogram.buckets());
+        metrics.put("kiosks", kiosks);
 
         return metrics;
     }
@@ -316,22 +416,30 @@ public class PollService {
      * Отримання гарячих голосувань (з найбільшою активністю)
      */
     public List<Poll> getTrendingPolls(int limit) {
-        List<Poll> allPolls = pollRepository.findByStatus("ACTIVE");
-
-        return allPolls.stream()
-                .sorted((p1, p2) -> {
-                    long votes1 = voteRepository.countByPoll(p1);
-                    long votes2 = voteRepository.countByPoll(p2);
-                    return Long.compare(votes2, votes1); // Спадаючий порядок
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Один запит з GROUP BY / LIMIT замість countByPoll на кожне порівняння
+        return pollRepository.findByStatusOrderByVoteCountDesc("ACTIVE", PageRequest.of(0, limit));
     }
 
     // ========================================================================
     // ДОПОМІЖНІ МЕТОДИ
     // ========================================================================
 
+    /**
+     * Знімок з кешу / таблиці; для голосувань, закритих до появи знімків, - створити
+     */
+    private FrozenResultsService.FrozenResults frozenResults(Poll poll) {
+        return frozenResultsService.find(poll.getId())
+                .orElseGet(() -> freezeResults(poll));
+    }
+
+    private FrozenResultsService.FrozenResults freezeResults(Poll poll) {
+        List<OptionTallyRow> tallies = pollOptionRepository.findTalliesByPollId(poll.getId());
+        return frozenResultsService.freeze(poll.getId(), computeStatistics(poll, tallies), computeMetrics(poll, tallies));
+    }
+
     private void logAdminAction(UUID adminId, String action, String targetType,
                                 UUID targetId, String description) {
         AdminLog log = new AdminLog();
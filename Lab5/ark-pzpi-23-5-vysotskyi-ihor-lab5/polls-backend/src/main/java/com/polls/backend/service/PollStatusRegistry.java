@@ -0,0 +1,93 @@
+package com.polls.backend.service;
+
+import com.polls.backend.entity.Poll;
+import com.polls.backend.entity.PollOption;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Статуси голосувань у пам'яті та явне скидання кешу другого рівня
+ *
+ * registerVote відхиляє голос за CLOSED / ARCHIVED голосування без запиту до БД.
+ * Статус записується при кожному завантаженні голосування на шляху голосу та при
+ * кожній зміні через PollService; невідомий статус означає "перевірити в БД".
+ *
+ * Після змін через сервіси Poll / PollOption / Poll.options скидаються явно, щоб
+ * наступне читання гарантовано бачило новий стан (Hibernate оновлює кеш і сам,
+ * але не бачить змін в обхід сесії: COPY, pg_restore).
+ */
+@Component
+public class PollStatusRegistry {
+
+    private static final String OPTIONS_ROLE = Poll.class.getName() + ".options";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<UUID, String> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * true лише якщо статус відомий і фінальний; невідомий статус - не закрите
+     */
+    public boolean isClosed(UUID pollId) {
+        return FrozenResultsService.isFinal(statuses.get(pollId));
+    }
+
+    /**
+     * Запам'ятати статус щойно завантаженого або збереженого голосування
+     */
+    public void record(Poll poll) {
+        if (poll != null && poll.getId() != null && poll.getStatus() != null) {
+            statuses.put(poll.getId(), poll.getStatus());
+        }
+    }
+
+    /**
+     * Голосування змінено (назва, статус, закриття, архівування): новий статус + скинути кеш
+     */
+    public void update(Poll poll) {
+        record(poll);
+        cache().evictEntityData(Poll.class, poll.getId());
+    }
+
+    /**
+     * Варіанти додано / видалено / переставлено
+     */
+    public void evictOptions(UUID pollId) {
+        // Самі PollOption Hibernate оновлює / видаляє в кеші при збереженні
+        cache().evictCollectionData(OPTIONS_ROLE, pollId);
+        cache().evictDefaultQueryRegion();
+    }
+
+    /**
+     * Голосування видалене або змінене на іншому вузлі (ClusterListener)
+     * Варіанти іншого вузла (текст, orderNum після перестановки) ця сесія не бачила:
+     * id варіантів у кеші не відомі, тому скидається весь регіон PollOption
+     */
+    public void evict(UUID pollId) {
+        statuses.remove(pollId);
+        cache().evictEntityData(Poll.class, pollId);
+        cache().evictCollectionData(OPTIONS_ROLE, pollId);
+        cache().evictEntityData(PollOption.class);
+        cache().evictDefaultQueryRegion();
+    }
+
+    /**
+     * Відновлення БД в обхід Hibernate: усі регіони та статуси застаріли
+     */
+    public void evictAll() {
+        statuses.clear();
+        cache().evictAllRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
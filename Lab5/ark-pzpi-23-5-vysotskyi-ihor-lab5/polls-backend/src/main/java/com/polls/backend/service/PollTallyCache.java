@@ -0,0 +1,161 @@
+package com.polls.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Версії підрахунку голосів та кеш серіалізованих відповідей статистики
+ *
+ * Кожне голосування має монотонну версію, яка збільшується при додаванні / видаленні
+ * голосу, зміні статусу чи варіантів. Поки версія не змінилась, /statistics і /metrics
+ * віддають готові байти JSON, а клієнт з тим самим ETag отримує 304.
+ *
+ * Версії живуть у пам'яті вузла (epoch - час старту), тому ETag від них не залежить:
+ * ETag - хеш самих байтів JSON, однаковий на всіх вузлах за балансувальником і після
+ * перезапуску. Хеш рахується один раз при кешуванні тіла. Версія лишається ключем кешу
+ * та id події SSE (лише в межах вузла).
+ */
+@Component
+public class PollTallyCache {
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    // Лічильники для метрик (MetricsConfig)
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    private record CachedBody(long generation, long version, Tagged body) {}
+
+    /**
+     * Тіло відповіді та його ETag (хеш вмісту)
+     */
+    public record Tagged(byte[] json, String etag) {}
+
+    /**
+     * Поточна версія голосування (0, якщо змін ще не було)
+     */
+    public long version(UUID pollId) {
+        AtomicLong version = versions.get(pollId);
+        return version != null ? version.get() : 0L;
+    }
+
+    /**
+     * Зміна, що впливає на статистику: голос, статус, варіанти
+     */
+    public void bump(UUID pollId) {
+        if (pollId == null) {
+            return;
+        }
+        versions.computeIfAbsent(pollId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Масові зміни в обхід сервісів (відновлення знімка): скинути всі кеші
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        bodies.clear();
+    }
+
+    /**
+     * id події SSE (Last-Event-ID): та сама версія, що в ETag, без голосування і типу
+     */
+    public String eventId(long version) {
+        return epoch + "." + generation.get() + "." + version;
+    }
+
+    /**
+     * Відповідь для версії: з кешу або обчислена supplier'ом
+     * Версію треба прочитати ДО обчислення: тоді тіло може бути новішим за версію,
+     * але ніколи не старішим, і наступна зміна все одно скине кеш
+     *
+     * @return null, якщо supplier повернув null (голосування не знайдено)
+     */
+    public byte[] body(UUID pollId, String kind, long version, Supplier<byte[]> supplier) {
+        Tagged tagged = tagged(pollId, kind, version, supplier);
+        return tagged != null ? tagged.json() : null;
+    }
+
+    /**
+     * Те саме, що body, разом з ETag для HTTP-відповіді
+     */
+    public Tagged tagged(UUID pollId, String kind, long version, Supplier<byte[]> supplier) {
+        String key = kind + ":" + pollId;
+        long currentGeneration = generation.get();
+
+        CachedBody cached = bodies.get(key);
+        if (cached != null && cached.version() == version && cached.generation() == currentGeneration) {
+            hits.increment();
+            return cached.body();
+        }
+        misses.increment();
+
+        byte[] json = supplier.get();
+        if (json == null) {
+            bodies.remove(key);
+            return null;
+        }
+        Tagged tagged = new Tagged(json, etag(kind, json));
+        bodies.put(key, new CachedBody(currentGeneration, version, tagged));
+        return tagged;
+    }
+
+    /**
+     * МАТЕМАТИКА: ETag = перші 16 байтів SHA-256 від JSON - той самий вміст дає той самий тег на будь-якому вузлі
+     */
+    static String etag(String kind, byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + kind + "-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Відповідь 304: тіло не знадобилось зовсім
+     */
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getNotModified() { return notModified.sum(); }
+
+    /**
+     * If-None-Match: список ETag через кому, W/ префікс або "*"
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,129 @@
+package com.polls.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Гістограма цілих оцінок 1..n: кошик на кожне значення рейтингу
+ *
+ * Оцінки RATING - малі цілі числа (порядок варіанту або rating кіоску), тому кошик на
+ * значення дає точні квантилі без наближень t-digest і займає n лічильників long.
+ * Гістограми складаються покошиково: гістограми кіосків і веб-голосів зливаються в
+ * гістограму голосування, результат той самий, що по всіх оцінках разом.
+ *
+ * МАТЕМАТИКА: усі показники за O(n) кошиків, не за O(N) голосів:
+ *   mean = Σ(c·r) / N, variance = Σ c·(r - mean)² / N
+ *   квантиль q (nearest-rank) - найменше r, для якого Σ c(≤r) >= ⌈q·N⌉
+ */
+final class RatingHistogram {
+
+    private long[] counts = new long[0];
+    private long total;
+
+    /**
+     * Додати votes оцінок rating; кошики ростуть до найбільшого значення
+     */
+    synchronized void add(int rating, long votes) {
+        if (rating < 1 || votes <= 0) {
+            return;
+        }
+        if (rating > counts.length) {
+            counts = Arrays.copyOf(counts, rating);
+        }
+        counts[rating - 1] += votes;
+        total += votes;
+    }
+
+    /**
+     * Злиття: other читається знімком до додавання - два замки одночасно не тримаються
+     */
+    void merge(RatingHistogram other) {
+        long[] source = other.snapshot();
+        for (int i = 0; i < source.length; i++) {
+            add(i + 1, source[i]);
+        }
+    }
+
+    synchronized long[] snapshot() {
+        return counts.clone();
+    }
+
+    synchronized long getTotal() { return total; }
+
+    synchronized int min() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    synchronized int max() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    synchronized double mean() {
+        if (total == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += (double) (i + 1) * counts[i];
+        }
+        return sum / total;
+    }
+
+    synchronized double variance() {
+        if (total == 0) {
+            return 0.0;
+        }
+        double mean = mean();
+        double squaredDeviations = 0.0;
+        for (int i = 0; i < counts.length; i++) {
+            squaredDeviations += counts[i] * Math.pow(i + 1 - mean, 2);
+        }
+        return squaredDeviations / total;
+    }
+
+    /**
+     * Квантиль q ∈ (0, 1]; 0 - оцінок немає
+     */
+    synchronized int quantile(double q) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return i + 1;
+            }
+        }
+        return counts.length;
+    }
+
+    /**
+     * Кошики для відповіді: [{rating, votes}] для 1..max, порожні - з нулем
+     */
+    synchronized List<Map<String, Object>> buckets() {
+        int max = max();
+        List<Map<String, Object>> buckets = new ArrayList<>(max);
+        for (int i = 0; i < max; i++) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("rating", i + 1);
+            bucket.put("votes", counts[i]);
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+}
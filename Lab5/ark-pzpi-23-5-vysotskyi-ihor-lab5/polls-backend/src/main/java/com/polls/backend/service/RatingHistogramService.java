@@ -0,0 +1,118 @@
+package com.polls.backend.service;
+
+import com.polls.backend.repository.IotVoteRepository;
+import com.polls.backend.repository.projection.RatingCountRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Гістограми оцінок кіосків (IotVote.rating) RATING-голосувань
+ *
+ * На кожне голосування - окрема RatingHistogram на кіоск, що оновлюється при кожному
+ * IoT-голосі; PollService зливає їх із гістограмою веб-голосів (лічильники варіантів)
+ * у метрики /api/polls/{id}/metrics. Гістограми створюються при першому читанні одним
+ * GROUP BY по iot_votes; далі - лише нові голоси, без перечитування.
+ *
+ * Зміни з інших вузлів (ClusterListener), зміна статусу голосування та відновлення
+ * копій скидають гістограми голосування - наступне читання засіває їх з БД заново.
+ * CLOSED / ARCHIVED голосування оцінок не приймають (IotVoteService): їхні метрики -
+ * заморожений знімок, і живі гістограми не повинні від нього відрізнятися.
+ */
+@Service
+public class RatingHistogramService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingHistogramService.class);
+
+    public static final String RATING = "RATING";
+
+    @Value("${polls.ratings.max-rating:10}")
+    private int maxRating;
+
+    @Autowired
+    private IotVoteRepository iotVoteRepository;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<UUID, Map<UUID, RatingHistogram>> polls = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("polls.ratings.polls", polls, Map::size)
+                .description("Голосування з гістограмами оцінок кіосків у пам'яті")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Найбільша допустима оцінка кіоску (шкала 1..max-rating)
+     */
+    public int getMaxRating() { return maxRating; }
+
+    /**
+     * Нова оцінка кіоску (після збереження прийнятого голосу відкритого голосування)
+     * Гістограм ще немає - нічого не робимо: засів прочитає голос з БД
+     * Голосування встигло закритися - теж нічого: закриття вже скинуло гістограми
+     */
+    public void record(UUID pollId, UUID iotDeviceId, Integer rating) {
+        if (pollId == null || iotDeviceId == null || rating == null || pollStatusRegistry.isClosed(pollId)) {
+            return;
+        }
+        // computeIfPresent: якщо саме йде засів, оновлення чекає на нього
+        polls.computeIfPresent(pollId, (id, kiosks) -> {
+            kiosks.computeIfAbsent(iotDeviceId, k -> new RatingHistogram()).add(rating, 1);
+            return kiosks;
+        });
+    }
+
+    /**
+     * Скинути гістограми голосування (зміни з іншого вузла, видалення голосування)
+     */
+    public void forget(UUID pollId) {
+        if (pollId != null) {
+            polls.remove(pollId);
+        }
+    }
+
+    /**
+     * Відновлення копії / знімка: голоси змінено в обхід сервісів
+     */
+    public void clear() {
+        polls.clear();
+    }
+
+    /**
+     * Гістограми кіосків голосування (засів з БД при першому зверненні)
+     */
+    Map<UUID, RatingHistogram> kioskHistograms(UUID pollId) {
+        return Collections.unmodifiableMap(polls.computeIfAbsent(pollId, this::seed));
+    }
+
+    private Map<UUID, RatingHistogram> seed(UUID pollId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RatingCountRow> rows = iotVoteRepository.countRatingsByPollId(pollId);
+        Map<UUID, RatingHistogram> kiosks = new ConcurrentHashMap<>();
+        for (RatingCountRow row : rows) {
+            kiosks.computeIfAbsent(row.getIotDeviceId(), k -> new RatingHistogram())
+                    .add(row.getRating(), row.getVotes());
+        }
+        sample.stop(meterRegistry.timer("polls.ratings.seed"));
+        logger.debug("📊 Гістограми оцінок poll={}: {} кіосків", pollId, kiosks.size());
+        return kiosks;
+    }
+}
@@ -0,0 +1,532 @@
+package com.polls.backend.service;
+
+import com.polls.backend.cluster.ClusterNotifier;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polls.backend.dto.BackupJobStatusDTO;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Знімки БД без зовнішніх pg_dump/psql
+ *
+ * Кожна таблиця вивантажується через COPY ... TO STDOUT (FORMAT binary) у окремий запис
+ * стисненого ZIP-архіву. Усі таблиці читаються в одній REPEATABLE READ транзакції,
+ * тому знімок узгоджений. Відновлення: COPY FROM STDIN у тимчасову таблицю та
+ * INSERT ... ON CONFLICT DO NOTHING; незалежні таблиці відновлюються паралельно.
+ *
+ * Таблиці iot_devices та admins у знімок не входять: вони мають існувати в цільовій БД.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotService.class);
+    private static final DateTimeFormatter dateFormatter =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final DateTimeFormatter sqlTimestampFormatter =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private static final String METADATA_ENTRY = "snapshot.json";
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    // Порядок відновлення за зовнішніми ключами; таблиці однієї хвилі незалежні
+    private static final List<List<String>> RESTORE_WAVES = List.of(
+            List.of("device_fingerprints"),
+            List.of("polls", "admin_logs"),
+            List.of("poll_options"),
+            List.of("votes", "iot_votes"),
+            List.of("iot_vote_options")
+    );
+    private static final List<String> TABLES = RESTORE_WAVES.stream()
+            .flatMap(List::stream)
+            .toList();
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BackupService backupService;
+
+    @Autowired
+    private BackupJobRegistry jobRegistry;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    @Autowired
+    private TextTermsService textTermsService;
+
+    @Autowired
+    private RatingHistogramService ratingHistogramService;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private FrozenResultsService frozenResultsService;
+
+    @Value("${backup.directory:./backups}")
+    private String backupDir;
+
+    @Value("${snapshot.compression-level:6}")
+    private int compressionLevel;
+
+    @Value("${snapshot.restore-parallelism:4}")
+    private int restoreParallelism;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Фільтр знімка: вибрані голосування та/або часовий діапазон [from, to)
+     */
+    public record SnapshotFilter(List<UUID> pollIds, LocalDateTime from, LocalDateTime to) {
+        public static final SnapshotFilter ALL = new SnapshotFilter(List.of(), null, null);
+
+        @JsonIgnore
+        public boolean isEmpty() {
+            return (pollIds == null || pollIds.isEmpty()) && from == null && to == null;
+        }
+    }
+
+    record TableInfo(List<String> columns, long rows, long bytes) {}
+
+    record SnapshotMetadata(String name, LocalDateTime createdAt, SnapshotFilter filter,
+                            Map<String, TableInfo> tables) {}
+
+    // ========================================================================
+    // ФОНОВІ ЗАДАЧІ
+    // ========================================================================
+
+    public BackupJobStatusDTO startSnapshot(SnapshotFilter filter) {
+        return jobRegistry.submit("SNAPSHOT", null, job -> {
+            Map<String, Object> result = createSnapshot(filter);
+            job.setResult((String) result.get("name"), (String) result.get("path"),
+                    (Long) result.get("sizeBytes"));
+            job.setDetails(result);
+        });
+    }
+
+    public BackupJobStatusDTO startRestore(String name) {
+        BackupService.ManifestEntry entry = findSnapshot(name);
+        return jobRegistry.submit("SNAPSHOT_RESTORE", entry.name(), job -> {
+            job.setResult(entry.name(), entry.path(), entry.sizeBytes());
+            job.setDetails(restoreSnapshot(entry.name()));
+        });
+    }
+
+    /**
+     * Порівняння повного знімка COPY з pg_dump -Fd -j N на тій самій БД: створення та відновлення
+     * Відновлення йде в тимчасову схему (COPY) та тимчасову БД (pg_restore), робочі таблиці не змінюються
+     */
+    public BackupJobStatusDTO startBenchmark() {
+        return jobRegistry.submit("BENCHMARK", null, job -> {
+            Map<String, Object> details = new LinkedHashMap<>();
+
+            Map<String, Object> snapshot = createSnapshot(SnapshotFilter.ALL);
+            details.put("copySnapshot", BackupService.throughput(
+                    (Long) snapshot.get("sizeBytes"), (Long) snapshot.get("durationMs")));
+            details.put("copyRestore", benchmarkRestore((String) snapshot.get("name")));
+
+            BackupService.ManifestEntry dump = null;
+            try {
+                dump = backupService.createBackup();
+                details.put("pgDump", BackupService.throughput(dump.sizeBytes(), dump.durationMs()));
+            } catch (RuntimeException e) {
+                details.put("pgDump", Map.of("error", String.valueOf(e.getMessage())));
+            }
+
+            if (dump != null) {
+                try {
+                    details.put("pgRestore", backupService.benchmarkRestore(dump));
+                } catch (RuntimeException e) {
+                    details.put("pgRestore", Map.of("error", String.valueOf(e.getMessage())));
+                }
+            }
+
+            job.setDetails(details);
+        });
+    }
+
+    // ========================================================================
+    // СТВОРЕННЯ ЗНІМКА
+    // ========================================================================
+
+    public Map<String, Object> createSnapshot(SnapshotFilter filter) throws IOException, SQLException {
+        Path dir = Paths.get(backupDir, "snapshots");
+        Files.createDirectories(dir);
+
+        String name = "polls_snapshot_" + LocalDateTime.now().format(dateFormatter);
+        Path archive = dir.resolve(name + ".zip");
+        Path tmp = dir.resolve(name + ".zip.part");
+
+        long startNanos = System.nanoTime();
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+            try {
+                CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+                try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(tmp), IO_BUFFER_SIZE);
+                     ZipOutputStream zip = new ZipOutputStream(file)) {
+                    zip.setLevel(compressionLevel);
+
+                    for (String table : TABLES) {
+                        List<String> columns = loadColumns(conn, table);
+                        String sql = "COPY (SELECT " + columnList(columns) + " FROM " + table
+                                + whereClause(table, filter) + ") TO STDOUT (FORMAT binary)";
+
+                        zip.putNextEntry(new ZipEntry(table + ".bin"));
+                        CountingOutputStream counter = new CountingOutputStream(zip);
+                        long rows = copyManager.copyOut(sql, counter);
+                        zip.closeEntry();
+
+                        tables.put(table, new TableInfo(columns, rows, counter.count));
+                        logger.info("📦 {}: {} рядків, {} байт", table, rows, counter.count);
+                    }
+
+                    SnapshotMetadata metadata = new SnapshotMetadata(name, LocalDateTime.now(), filter, tables);
+                    zip.putNextEntry(new ZipEntry(METADATA_ENTRY));
+                    zip.write(objectMapper.writeValueAsBytes(metadata));
+                    zip.closeEntry();
+                }
+                conn.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+        }
+
+        Files.move(tmp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        long size = Files.size(archive);
+
+        backupService.registerBackup(new BackupService.ManifestEntry(name, archive.toString(),
+                BackupService.FORMAT_COPY, LocalDateTime.now(), size, durationMs,
+                Map.of(archive.getFileName().toString(), BackupService.sha256(archive))));
+
+        long totalRows = tables.values().stream().mapToLong(TableInfo::rows).sum();
+        long rawBytes = tables.values().stream().mapToLong(TableInfo::bytes).sum();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", name);
+        result.put("path", archive.toString());
+        result.put("sizeBytes", size);
+        result.put("rawBytes", rawBytes);
+        result.put("durationMs", durationMs);
+        result.put("totalRows", totalRows);
+        result.put("rowsPerSecond", durationMs > 0 ? totalRows * 1000 / durationMs : totalRows);
+        result.put("tables", tables.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().rows(),
+                        (a, b) -> a, LinkedHashMap::new)));
+
+        logger.info("✅ Знімок створено: {} ({} рядків, {} байт, {} мс)", archive, totalRows, size, durationMs);
+        return result;
+    }
+
+    // ========================================================================
+    // ВІДНОВЛЕННЯ
+    // ========================================================================
+
+    public Map<String, Object> restoreSnapshot(String name) throws Exception {
+        BackupService.ManifestEntry entry = findSnapshot(name);
+
+        Map<String, Object> verification = backupService.verifyBackup(entry.name());
+        if (verification == null || !Boolean.TRUE.equals(verification.get("valid"))) {
+            throw new IllegalStateException("Контрольна сума знімка не збігається: " + entry.name());
+        }
+
+        long startNanos = System.nanoTime();
+        Map<String, Object> inserted = restoreTables(entry.path(), null);
+
+        // Голоси вставлено в обхід сервісів: лічильники перебудувати, кешовані відповіді застаріли
+        voteCounterService.rebuild();
+        textTermsService.clear();
+        ratingHistogramService.clear();
+        pollTallyCache.invalidateAll();
+        frozenResultsService.discardAll();
+        pollStatusRegistry.evictAll();
+        clusterNotifier.allChanged();
+
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        Map<String, Object> result = BackupService.throughput(entry.sizeBytes(), durationMs);
+        result.put("insertedRows", inserted);
+        logger.info("✅ Знімок відновлено: {} за {} мс", entry.name(), durationMs);
+        return result;
+    }
+
+    /**
+     * Відновлення знімка в тимчасову схему для бенчмарку
+     * Таблиці схеми - копії робочих (LIKE ... INCLUDING ALL); схема видаляється після заміру
+     */
+    private Map<String, Object> benchmarkRestore(String name) throws Exception {
+        BackupService.ManifestEntry entry = findSnapshot(name);
+        String schema = "snapshot_bench_" + System.currentTimeMillis();
+
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE SCHEMA " + schema);
+            for (String table : TABLES) {
+                st.execute("CREATE TABLE " + schema + "." + table + " (LIKE " + table + " INCLUDING ALL)");
+            }
+        }
+
+        try {
+            long startNanos = System.nanoTime();
+            Map<String, Object> inserted = restoreTables(entry.path(), schema);
+            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+            Map<String, Object> result = BackupService.throughput(entry.sizeBytes(), durationMs);
+            result.put("insertedRows", inserted);
+            logger.info("⏱️ Бенчмарк відновлення знімка {}: {} мс", entry.name(), durationMs);
+            return result;
+        } finally {
+            try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+                st.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            }
+        }
+    }
+
+    /**
+     * Хвилі RESTORE_WAVES по черзі, таблиці хвилі - паралельно
+     * schema == null: робочі таблиці поточної схеми
+     */
+    private Map<String, Object> restoreTables(String path, String schema) throws Exception {
+        Map<String, Object> inserted = new LinkedHashMap<>();
+
+        try (ZipFile zip = new ZipFile(path)) {
+            SnapshotMetadata metadata;
+            try (InputStream in = zip.getInputStream(zip.getEntry(METADATA_ENTRY))) {
+                metadata = objectMapper.readValue(in, SnapshotMetadata.class);
+            }
+
+            // restoreParallelism обмежує кількість з'єднань; потоки можуть бути віртуальними
+            ExecutorService pool = Executors.newFixedThreadPool(restoreParallelism, virtualThreads
+                    ? Thread.ofVirtual().name("snapshot-restore-", 0).factory()
+                    : Thread.ofPlatform().name("snapshot-restore-", 0).factory());
+            try {
+                for (List<String> wave : RESTORE_WAVES) {
+                    Map<String, Future<Long>> futures = new LinkedHashMap<>();
+                    for (String table : wave) {
+                        TableInfo info = metadata.tables().get(table);
+                        if (info == null) {
+                            continue;
+                        }
+                        String target = schema == null ? table : schema + "." + table;
+                        futures.put(table, pool.submit(() -> restoreTable(zip, table, target, info.columns())));
+                    }
+                    // Наступна хвиля залежить від поточної (зовнішні ключі)
+                    for (Map.Entry<String, Future<Long>> f : futures.entrySet()) {
+                        inserted.put(f.getKey(), f.getValue().get());
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Одна таблиця = одне з'єднання та одна транзакція
+     * Існуючі рядки (за первинним ключем) пропускаються
+     */
+    private long restoreTable(ZipFile zip, String table, String target, List<String> columns)
+            throws SQLException, IOException {
+        String stage = "snapshot_stage_" + table;
+        String cols = columnList(columns);
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("CREATE TEMP TABLE " + stage + " (LIKE " + table + " INCLUDING DEFAULTS) ON COMMIT DROP");
+                }
+
+                CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+                try (InputStream in = zip.getInputStream(zip.getEntry(table + ".bin"))) {
+                    copyManager.copyIn("COPY " + stage + " (" + cols + ") FROM STDIN (FORMAT binary)",
+                            in, IO_BUFFER_SIZE);
+                }
+
+                int rows;
+                try (Statement st = conn.createStatement()) {
+                    rows = st.executeUpdate("INSERT INTO " + target + " (" + cols + ") SELECT " + cols
+                            + " FROM " + stage + " ON CONFLICT DO NOTHING");
+                }
+                conn.commit();
+                logger.info("📥 {}: вставлено {} рядків", target, rows);
+                return rows;
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // ========================================================================
+    // ДОПОМІЖНІ МЕТОДИ
+    // ========================================================================
+
+    private BackupService.ManifestEntry findSnapshot(String name) {
+        return backupService.findBackup(name)
+                .filter(e -> BackupService.FORMAT_COPY.equals(e.format()))
+                .orElseThrow(() -> new IllegalArgumentException("Знімок не знайдено: " + name));
+    }
+
+    private List<String> loadColumns(Connection conn, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT column_name FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? ORDER BY ordinal_position")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(rs.getString(1));
+                }
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new SQLException("Таблицю не знайдено: " + table);
+        }
+        return columns;
+    }
+
+    private String columnList(List<String> columns) {
+        return columns.stream().map(c -> "\"" + c + "\"").collect(Collectors.joining(", "));
+    }
+
+    /**
+     * WHERE для таблиці за фільтром
+     * COPY не підтримує параметри, тому значення вбудовуються в SQL:
+     * це лише UUID та дати, сформовані на сервері, а не довільні рядки
+     */
+    private String whereClause(String table, SnapshotFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return "";
+        }
+
+        String pollIds = filter.pollIds() == null || filter.pollIds().isEmpty() ? null
+                : filter.pollIds().stream()
+                        .map(id -> "'" + id + "'::uuid")
+                        .collect(Collectors.joining(", ", "(", ")"));
+
+        List<String> conditions = new ArrayList<>();
+        switch (table) {
+            case "polls" -> addIf(conditions, pollIds, "id IN " + pollIds);
+            case "poll_options" -> addIf(conditions, pollIds, "poll_id IN " + pollIds);
+            case "votes", "iot_votes" -> {
+                addIf(conditions, pollIds, "poll_id IN " + pollIds);
+                conditions.addAll(timeRange("voted_at", filter));
+            }
+            case "iot_vote_options" -> {
+                // Вибрані варіанти лише тих голосів кіосків, що потрапили в знімок
+                List<String> voteConditions = new ArrayList<>(timeRange("voted_at", filter));
+                addIf(voteConditions, pollIds, "poll_id IN " + pollIds);
+                if (!voteConditions.isEmpty()) {
+                    conditions.add("iot_vote_id IN (SELECT id FROM iot_votes WHERE "
+                            + String.join(" AND ", voteConditions) + ")");
+                }
+            }
+            case "admin_logs" -> {
+                addIf(conditions, pollIds, "target_id IN " + pollIds);
+                conditions.addAll(timeRange("created_at", filter));
+            }
+            case "device_fingerprints" -> {
+                // Лише відбитки, на які посилаються вибрані голосування та голоси
+                String pollCondition = pollIds != null ? "id IN " + pollIds : "TRUE";
+                List<String> voteConditions = new ArrayList<>(timeRange("voted_at", filter));
+                addIf(voteConditions, pollIds, "poll_id IN " + pollIds);
+                String voteCondition = voteConditions.isEmpty() ? "TRUE" : String.join(" AND ", voteConditions);
+                conditions.add("(id IN (SELECT organizer_fingerprint_id FROM polls WHERE " + pollCondition + ")"
+                        + " OR id IN (SELECT fingerprint_id FROM votes WHERE " + voteCondition + "))");
+            }
+            default -> { }
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private void addIf(List<String> conditions, String pollIds, String condition) {
+        if (pollIds != null) {
+            conditions.add(condition);
+        }
+    }
+
+    private List<String> timeRange(String column, SnapshotFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.from() != null) {
+            conditions.add(column + " >= '" + filter.from().format(sqlTimestampFormatter) + "'::timestamp");
+        }
+        if (filter.to() != null) {
+            conditions.add(column + " < '" + filter.to().format(sqlTimestampFormatter) + "'::timestamp");
+        }
+        return conditions;
+    }
+
+    /**
+     * Лічильник байтів COPY-потоку; не закриває ZIP-потік
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // ZipOutputStream закривається окремо
+        }
+    }
+}
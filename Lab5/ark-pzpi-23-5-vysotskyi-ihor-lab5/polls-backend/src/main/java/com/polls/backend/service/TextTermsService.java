@@ -0,0 +1,240 @@
+package com.polls.backend.service;
+
+import com.polls.backend.entity.Poll;
+import com.polls.backend.repository.IotVoteRepository;
+import com.polls.backend.repository.VoteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Найчастіші слова відповідей OPEN-голосувань (хмара слів)
+ *
+ * Кожна нова відповідь (Vote / IotVote.textAnswer) розбивається на слова й додається
+ * до TopTermsSketch голосування - без перечитування всіх відповідей на кожен запит.
+ * Скетч створюється при першому читанні (GET /api/polls/{id}/terms або підписка на
+ * polls/{id}/terms) одним потоковим проходом по відповідям у БД; далі - лише нові.
+ *
+ * Тема polls/{id}/terms оновлюється не частіше ніж раз на polls.terms.broadcast-ms:
+ * хмарі слів не потрібен кадр на кожну відповідь.
+ *
+ * Скетч - у пам'яті вузла: у кластері кожен вузол додає відповіді, що прийшли на
+ * нього, поверх засіву з БД. Видалення голосу з текстом скидає скетч (засів заново).
+ */
+@Service
+public class TextTermsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextTermsService.class);
+
+    public static final String OPEN = "OPEN";
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TERM_LENGTH = 32;
+
+    // Службові слова; слова коротші за polls.terms.min-length відкидаються окремо
+    private static final Set<String> STOP_WORDS = Set.of(
+            "але", "або", "для", "що", "щоб", "як", "так", "від", "при", "про", "без", "під", "над",
+            "він", "вона", "воно", "вони", "його", "її", "їх", "мені", "мене", "нам", "вам",
+            "цей", "ця", "це", "ці", "цього", "той", "та", "те", "ті", "який", "яка", "яке", "які",
+            "дуже", "все", "всі", "вже", "ще", "теж", "також", "тому", "тут", "там", "коли", "бо",
+            "the", "and", "for", "with", "that", "this", "are", "was", "not", "but", "you", "too");
+
+    @Value("${polls.terms.top-k:100}")
+    private int topK;
+
+    @Value("${polls.terms.sketch-width:2048}")
+    private int sketchWidth;
+
+    @Value("${polls.terms.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${polls.terms.min-length:3}")
+    private int minLength;
+
+    @Value("${polls.terms.max-terms-per-answer:50}")
+    private int maxTermsPerAnswer;
+
+    @Value("${polls.terms.broadcast-ms:1000}")
+    private long broadcastMs;
+
+    @Autowired
+    private PollService pollService;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private IotVoteRepository iotVoteRepository;
+
+    @Autowired
+    private WebSocketBroadcaster webSocketBroadcaster;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<UUID, TopTermsSketch> sketches = new ConcurrentHashMap<>();
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "terms-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::broadcastChanged, broadcastMs, broadcastMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("polls.terms.polls", sketches, Map::size)
+                .description("Голосування зі скетчем слів у пам'яті")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Нова текстова відповідь (після збереження голосу)
+     * Скетчу ще немає - нічого не робимо: засів прочитає відповідь з БД
+     */
+    public void record(UUID pollId, String textAnswer) {
+        if (pollId == null || textAnswer == null || textAnswer.isBlank()) {
+            return;
+        }
+        TopTermsSketch sketch = sketches.get(pollId);
+        if (sketch != null) {
+            sketch.addAnswer(tokenize(textAnswer));
+        }
+        changed.add(pollId);
+    }
+
+    /**
+     * Скинути скетч голосування (видалено голос з текстом): наступне читання - засів з БД
+     */
+    public void forget(UUID pollId) {
+        if (pollId != null && sketches.remove(pollId) != null) {
+            changed.add(pollId);
+        }
+    }
+
+    /**
+     * Відновлення копії / знімка: голоси змінено в обхід сервісів
+     */
+    public void clear() {
+        changed.addAll(sketches.keySet());
+        sketches.clear();
+    }
+
+    /**
+     * GET /api/polls/{id}/terms
+     *
+     * @return null, якщо голосування не існує
+     * @throws IllegalArgumentException голосування не OPEN
+     */
+    public Map<String, Object> getTopTerms(UUID pollId, int limit) {
+        Poll poll = pollService.getPollById(pollId);
+        if (poll == null) {
+            sketches.remove(pollId);
+            return null;
+        }
+        if (!OPEN.equals(poll.getType())) {
+            throw new IllegalArgumentException("Слова рахуються лише для OPEN-голосувань");
+        }
+        return view(pollId, sketches.computeIfAbsent(pollId, this::seed), limit);
+    }
+
+    private Map<String, Object> view(UUID pollId, TopTermsSketch sketch, int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pollId", pollId);
+        result.put("answers", sketch.getAnswers());
+        result.put("tokens", sketch.getTokens());
+        // Частоти - оцінки зверху, не більше ніж на errorBound (з імовірністю 1 - e^-depth)
+        result.put("errorBound", sketch.errorBound());
+        result.put("terms", sketch.top(Math.clamp(limit, 1, topK)));
+        return result;
+    }
+
+    /**
+     * Засів: один потоковий прохід по відповідях голосування (веб і кіоски)
+     */
+    private TopTermsSketch seed(UUID pollId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TopTermsSketch sketch = new TopTermsSketch(sketchWidth, sketchDepth, topK);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> {
+            try (Stream<String> answers = voteRepository.streamTextAnswersByPollId(pollId)) {
+                answers.forEach(answer -> sketch.addAnswer(tokenize(answer)));
+            }
+            try (Stream<String> answers = iotVoteRepository.streamTextAnswersByPollId(pollId)) {
+                answers.forEach(answer -> sketch.addAnswer(tokenize(answer)));
+            }
+        });
+        sample.stop(meterRegistry.timer("polls.terms.seed"));
+        logger.info("☁️ Скетч слів poll={}: {} відповідей, {} слів", pollId, sketch.getAnswers(), sketch.getTokens());
+        return sketch;
+    }
+
+    /**
+     * Слова відповіді: нижній регістр, лише літери й цифри, без службових, без повторів
+     * (одна відповідь "супер супер супер" - один голос за слово)
+     */
+    Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() < minLength || token.length() > MAX_TERM_LENGTH
+                    || STOP_WORDS.contains(token) || token.chars().allMatch(Character::isDigit)) {
+                continue;
+            }
+            terms.add(token);
+            if (terms.size() >= maxTermsPerAnswer) {
+                break;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Розсилка топу змінених голосувань з підписниками polls/{id}/terms
+     * Підписка без скетчу - засів тут, а не в потоці голосування
+     */
+    private void broadcastChanged() {
+        for (Iterator<UUID> it = changed.iterator(); it.hasNext(); ) {
+            UUID pollId = it.next();
+            it.remove();
+            if (!webSocketBroadcaster.hasTermsSubscribers(pollId)) {
+                continue;
+            }
+            try {
+                Map<String, Object> terms = getTopTerms(pollId, topK);
+                if (terms != null) {
+                    webSocketBroadcaster.broadcastPollTerms(pollId, terms);
+                }
+            } catch (RuntimeException e) {
+                logger.error("❌ Не вдалося розіслати слова poll={}", pollId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.polls.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Наближені частоти слів відповідей одного голосування: count-min sketch + top-K
+ *
+ * Пам'ять фіксована і не залежить від кількості відповідей: depth x width лічильників
+ * int і не більше k слів у топі.
+ *
+ * МАТЕМАТИКА (count-min): слово збільшує по одному лічильнику в кожному з depth рядків
+ * (свій хеш на рядок), оцінка - мінімум із них. Оцінка ніколи не менша за справжню
+ * частоту і з імовірністю 1 - e^(-depth) перевищує її не більше ніж на e / width * N
+ * (N - усього слів). Консервативне оновлення (збільшуються лише лічильники, що дорівнюють
+ * мінімуму) додатково зменшує завищення від колізій.
+ *
+ * Top-K: мін-купа слів з найбільшими оцінками. Нове слово витісняє найменше, якщо його
+ * оцінка більша; для слова в топі оцінка оновлюється при кожному входженні.
+ */
+final class TopTermsSketch {
+
+    private static final Comparator<Term> BY_COUNT = Comparator.comparingLong(t -> t.count);
+
+    private final int width;
+    private final int depth;
+    private final int k;
+    private final int[] counters;
+    private final Map<String, Term> top = new HashMap<>();
+    private final PriorityQueue<Term> heap = new PriorityQueue<>(BY_COUNT);
+
+    private long answers;
+    private long tokens;
+
+    private static final class Term {
+        final String text;
+        long count;
+
+        Term(String text, long count) {
+            this.text = text;
+            this.count = count;
+        }
+    }
+
+    /**
+     * @param width лічильників у рядку, степінь двійки
+     */
+    TopTermsSketch(int width, int depth, int k) {
+        if (Integer.bitCount(width) != 1 || depth <= 0 || k <= 0) {
+            throw new IllegalArgumentException("Некоректні розміри: width=" + width
+                    + ", depth=" + depth + ", k=" + k);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.k = k;
+        this.counters = new int[width * depth];
+    }
+
+    /**
+     * Слова однієї відповіді (вже без повторів)
+     */
+    synchronized void addAnswer(Collection<String> terms) {
+        answers++;
+        for (String term : terms) {
+            add(term);
+        }
+    }
+
+    private void add(String term) {
+        tokens++;
+        // Kirsch-Mitzenmacher: хеш рядка i = h1 + i * h2
+        int h1 = mix(term.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        int mask = width - 1;
+
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + ((h1 + row * h2) & mask)]);
+        }
+        int estimate = min + 1;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + ((h1 + row * h2) & mask);
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        offer(term, estimate);
+    }
+
+    private void offer(String term, long estimate) {
+        Term existing = top.get(term);
+        if (existing != null) {
+            heap.remove(existing);
+            existing.count = estimate;
+            heap.offer(existing);
+            return;
+        }
+        if (top.size() >= k) {
+            if (estimate <= heap.peek().count) {
+                return;
+            }
+            top.remove(heap.poll().text);
+        }
+        Term added = new Term(term, estimate);
+        top.put(term, added);
+        heap.offer(added);
+    }
+
+    /**
+     * Топ слів за спаданням оцінки
+     */
+    synchronized List<Map<String, Object>> top(int limit) {
+        List<Term> sorted = new ArrayList<>(heap);
+        sorted.sort(BY_COUNT.reversed().thenComparing(t -> t.text));
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (Term term : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("term", term.text);
+            entry.put("count", term.count);
+            result.add(entry);
+        }
+        return result;
+    }
+
+    synchronized long getAnswers() { return answers; }
+
+    synchronized long getTokens() { return tokens; }
+
+    /**
+     * МАТЕМАТИКА: межа завищення e / width * N
+     */
+    synchronized long errorBound() {
+        return (long) Math.ceil(Math.E / width * tokens);
+    }
+
+    // Перемішування бітів (фіналізатор MurmurHash3): String.hashCode схожих слів близькі
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,315 @@
+package com.polls.backend.service;
+
+import com.polls.backend.repository.IotVoteOptionRepository;
+import com.polls.backend.repository.PollOptionCounterRepository;
+import com.polls.backend.repository.VoteRepository;
+import com.polls.backend.repository.projection.OptionCountRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Шардовані лічильники голосів (poll_option_counters)
+ *
+ * Голос збільшує випадковий з polls.counters.shards слотів свого варіанту в тій самій
+ * транзакції, що й INSERT у votes: конкурентні голоси за популярний варіант блокують
+ * різні рядки. Статистика читає SUM по слотах замість COUNT(*) по votes, тому однакова
+ * на всіх вузлах і не залежить від кількості голосів.
+ *
+ * Вибрані варіанти голосів кіосків (iot_vote_options, крім REJECTED) рахуються так само, але в колонці
+ * iot_votes тих самих слотів: усього за варіант - votes + iot_votes, частка кіосків окремо.
+ *
+ * Звірка (reconcile): COUNT(*) по votes / iot_vote_options проти SUM лічильників;
+ * розбіжність перевіряється повторно в REPEATABLE READ і виправляється дельтою в слот 0.
+ */
+@Service
+public class VoteCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteCounterService.class);
+
+    // Ключ лічильника текстових відповідей (голос без варіанту)
+    public static final UUID TEXT_ANSWERS = new UUID(0L, 0L);
+
+    private static final int REPORTED_MISMATCHES = 100;
+
+    private record CounterKey(UUID pollId, UUID optionId) {}
+
+    // Пара значень ключа: веб-голоси (votes) та вибори кіосків (iot_votes)
+    private record Counts(long votes, long iotVotes) {
+        static final Counts ZERO = new Counts(0, 0);
+    }
+
+    @Value("${polls.counters.shards:8}")
+    private int shards;
+
+    @Value("${polls.counters.reconcile-minutes:60}")
+    private long reconcileMinutes;
+
+    @Autowired
+    private PollOptionCounterRepository counterRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private IotVoteOptionRepository iotVoteOptionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        if (reconcileMinutes <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "counters-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledReconcile, reconcileMinutes, reconcileMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // ============================================
+    // Запис / читання
+    // ============================================
+
+    /**
+     * +1 у випадковий слот; викликати в транзакції вставки голосу
+     */
+    public void increment(UUID pollId, UUID optionId) {
+        add(pollId, optionId, 1);
+    }
+
+    /**
+     * -1 у випадковий слот (сума по слотах лишається точною, окремий слот може бути від'ємним)
+     */
+    public void decrement(UUID pollId, UUID optionId) {
+        add(pollId, optionId, -1);
+    }
+
+    /**
+     * +1 у випадковий слот колонки iot_votes; викликати в транзакції вставки iot_vote_options
+     */
+    public void incrementIot(UUID pollId, UUID optionId) {
+        short slot = (short) ThreadLocalRandom.current().nextInt(shards);
+        counterRepository.addIot(pollId, optionId, slot, 1);
+    }
+
+    private void add(UUID pollId, UUID optionId, long delta) {
+        short slot = (short) ThreadLocalRandom.current().nextInt(shards);
+        counterRepository.add(pollId, optionId != null ? optionId : TEXT_ANSWERS, slot, delta);
+    }
+
+    /**
+     * Усі голоси голосування, включно з текстовими відповідями та виборами кіосків
+     */
+    public long totalVotes(UUID pollId) {
+        return counterRepository.sumByPollId(pollId);
+    }
+
+    /**
+     * Варіант видалено разом із голосами (cascade): його лічильники теж
+     */
+    public void forgetOption(UUID pollId, UUID optionId) {
+        counterRepository.deleteByPollIdAndOptionId(pollId, optionId);
+    }
+
+    // ============================================
+    // Звірка з votes
+    // ============================================
+
+    /**
+     * Порівняти лічильники з COUNT(*) по votes та iot_vote_options; repair - виправити розбіжності
+     *
+     * Повне сканування - лише для пошуку кандидатів: голоси, що комітяться під час
+     * сканування, дають хибні розбіжності. Тому кожен кандидат перевіряється ще раз
+     * у REPEATABLE READ (голос і його лічильник видно разом або не видно зовсім);
+     * конфлікт із паралельним голосом - кандидат пропускається до наступної звірки.
+     */
+    public Map<String, Object> reconcile(boolean repair) {
+        if (!reconcileLock.tryLock()) {
+            throw new IllegalStateException("Звірка лічильників вже виконується");
+        }
+        try {
+            long startNanos = System.nanoTime();
+
+            Map<CounterKey, Counts> counted = new HashMap<>();
+            for (OptionCountRow row : counterRepository.sumAll()) {
+                merge(counted, row.getPollId(), row.getOptionId(), row.getVotes(), 0);
+            }
+            for (OptionCountRow row : counterRepository.sumAllIot()) {
+                merge(counted, row.getPollId(), row.getOptionId(), 0, row.getVotes());
+            }
+            Map<CounterKey, Counts> actual = new HashMap<>();
+            for (OptionCountRow row : voteRepository.countAllByPollAndOption()) {
+                UUID optionId = row.getOptionId() != null ? row.getOptionId() : TEXT_ANSWERS;
+                merge(actual, row.getPollId(), optionId, row.getVotes(), 0);
+            }
+            for (OptionCountRow row : iotVoteOptionRepository.countAllByPollAndOption()) {
+                merge(actual, row.getPollId(), row.getOptionId(), 0, row.getVotes());
+            }
+
+            Set<CounterKey> keys = new HashSet<>(counted.keySet());
+            keys.addAll(actual.keySet());
+
+            List<Map<String, Object>> mismatches = new ArrayList<>();
+            int found = 0;
+            int repaired = 0;
+            int skipped = 0;
+            for (CounterKey key : keys) {
+                Counts expected = actual.getOrDefault(key, Counts.ZERO);
+                Counts current = counted.getOrDefault(key, Counts.ZERO);
+                if (expected.equals(current)) {
+                    continue;
+                }
+
+                String action = "reported";
+                if (repair) {
+                    action = repairKey(key);
+                    if ("repaired".equals(action)) {
+                        repaired++;
+                    } else if ("skipped".equals(action)) {
+                        skipped++;
+                    }
+                }
+                if (!"consistent".equals(action)) {
+                    found++;
+                    meterRegistry.counter("polls.counters.mismatches", "action", action).increment();
+                    if (mismatches.size() < REPORTED_MISMATCHES) {
+                        Map<String, Object> item = new LinkedHashMap<>();
+                        item.put("pollId", key.pollId());
+                        item.put("optionId", key.optionId());
+                        item.put("counted", current.votes());
+                        item.put("actual", expected.votes());
+                        item.put("iotCounted", current.iotVotes());
+                        item.put("iotActual", expected.iotVotes());
+                        item.put("action", action);
+                        mismatches.add(item);
+                    }
+                }
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("checked", keys.size());
+            result.put("mismatches", found);
+            result.put("repaired", repaired);
+            result.put("skipped", skipped);
+            result.put("details", mismatches);
+            result.put("durationMs", (System.nanoTime() - startNanos) / 1_000_000);
+            return result;
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    /**
+     * Повторна перевірка одного ключа в REPEATABLE READ і виправлення дельтою
+     * @return repaired / consistent (розбіжність зникла) / skipped (конфлікт)
+     */
+    private String repairKey(CounterKey key) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        try {
+            Boolean changed = template.execute(status -> {
+                long expected = TEXT_ANSWERS.equals(key.optionId())
+                        ? voteRepository.countByPollIdAndOptionIsNull(key.pollId())
+                        : voteRepository.countByPollIdAndOption_Id(key.pollId(), key.optionId());
+                long expectedIot = TEXT_ANSWERS.equals(key.optionId()) ? 0
+                        : iotVoteOptionRepository.countByPollIdAndOptionId(key.pollId(), key.optionId());
+                long delta = expected - counterRepository.sumByPollIdAndOptionId(key.pollId(), key.optionId());
+                long deltaIot = expectedIot - counterRepository.sumIotByPollIdAndOptionId(key.pollId(), key.optionId());
+                if (delta == 0 && deltaIot == 0) {
+                    return false;
+                }
+                if (expected == 0 && expectedIot == 0) {
+                    // Голосування / варіант без голосів (або вже видалений): рядки не потрібні
+                    counterRepository.deleteByPollIdAndOptionId(key.pollId(), key.optionId());
+                } else {
+                    if (delta != 0) {
+                        counterRepository.add(key.pollId(), key.optionId(), (short) 0, delta);
+                    }
+                    if (deltaIot != 0) {
+                        counterRepository.addIot(key.pollId(), key.optionId(), (short) 0, deltaIot);
+                    }
+                }
+                logger.warn("🧮 Лічильник poll={} option={} виправлено на {} (кіоски {})",
+                        key.pollId(), key.optionId(), delta, deltaIot);
+                return true;
+            });
+            return Boolean.TRUE.equals(changed) ? "repaired" : "consistent";
+        } catch (DataAccessException e) {
+            logger.debug("Звірку poll={} option={} відкладено: {}", key.pollId(), key.optionId(), e.getMessage());
+            return "skipped";
+        }
+    }
+
+    private static void merge(Map<CounterKey, Counts> counts, UUID pollId, UUID optionId, long votes, long iotVotes) {
+        counts.merge(new CounterKey(pollId, optionId), new Counts(votes, iotVotes),
+                (a, b) -> new Counts(a.votes() + b.votes(), a.iotVotes() + b.iotVotes()));
+    }
+
+    private void scheduledReconcile() {
+        try {
+            Map<String, Object> result = reconcile(true);
+            if (((Integer) result.get("mismatches")) > 0) {
+                logger.warn("🧮 Звірка лічильників: {} розбіжностей, виправлено {}, відкладено {}",
+                        result.get("mismatches"), result.get("repaired"), result.get("skipped"));
+            } else {
+                logger.info("🧮 Звірка лічильників: {} ключів збігаються ({} мс)",
+                        result.get("checked"), result.get("durationMs"));
+            }
+        } catch (IllegalStateException e) {
+            logger.info("Планову звірку пропущено: {}", e.getMessage());
+        } catch (Exception e) {
+            logger.error("❌ Помилка звірки лічильників", e);
+        }
+    }
+
+    /**
+     * Перебудувати всі лічильники з votes та iot_vote_options (після відновлення в обхід сервісів)
+     *
+     * EXCLUSIVE блокування таблиці: голоси, що вже вставлені, але не закомічені,
+     * чекають на свій інкремент і додають його після перебудови - нічого не
+     * рахується двічі і нічого не губиться.
+     */
+    public int rebuild() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        Integer rows = template.execute(status -> {
+            counterRepository.lockExclusive();
+            counterRepository.deleteAllRows();
+            return counterRepository.insertFromVotes() + counterRepository.insertFromIotVoteOptions();
+        });
+        logger.info("🧮 Лічильники голосів перебудовано: {} рядків", rows);
+        return rows != null ? rows : 0;
+    }
+}
@@ -1,21 +1,34 @@
 package com.polls.backend.service;
 
+import com.polls.backend.cluster.ClusterNotifier;
 import com.polls.backend.entity.*;
+import com.polls.backend.jfr.VoteStageEvent;
+import com.polls.backend.logging.VoteCorrelation;
 import com.polls.backend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
 public class VoteService {
 
+    private static final Logger logger = LoggerFactory.getLogger(VoteService.class);
+
     @Autowired
     private VoteRepository voteRepository;
 
     @Autowired
     private PollRepository pollRepository;
 
+    @Autowired
+    private PollOptionRepository pollOptionRepository;
+
     @Autowired
     private DeviceFingerprintRepository deviceFingerprintRepository;
 
@@ -28,6 +41,30 @@ public class VoteService {
     @Autowired
     private WebSocketBroadcaster webSocketBroadcaster;
 
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private ClusterNotifier clusterNotifier;
+
+    @Autowired
+    private VoteCounterService voteCounterService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    @Autowired
+    private FrozenResultsService frozenResultsService;
+
+    @Autowired
+    private TextTermsService textTermsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * CRUD: Получить все голоса
      */
@@ -63,28 +100,83 @@ public class VoteService {
      * 2. Перевіряємо, чи не заблокований пристрій
      * 3. Записуємо голос
      * 4. ⭐ Трансльуємо оновлені результати через WebSocket
+     *
+     * CLOSED / ARCHIVED: PollClosedException; відомий статус (PollStatusRegistry) - без запиту до БД
+     *
+     * ЛОГУВАННЯ: без System.out на гарячому шляху; voteId у MDC для всіх записів голосу
      */
     public Vote registerVote(UUID pollId, UUID optionId, UUID fingerprintId) {
-        System.out.println("🔥 registerVote called for pollId: " + pollId);
+        return registerVote(pollId, optionId, fingerprintId, null);
+    }
+
+    /**
+     * Голос з текстовою відповіддю (OPEN): текст зберігається та йде в TextTermsService
+     */
+    public Vote registerVote(UUID pollId, UUID optionId, UUID fingerprintId, String textAnswer) {
+        VoteCorrelation.Scope correlation = VoteCorrelation.open();
+        try {
+            return doRegisterVote(pollId, optionId, fingerprintId, textAnswer);
+        } finally {
+            correlation.close();
+        }
+    }
+
+    private Vote doRegisterVote(UUID pollId, UUID optionId, UUID fingerprintId, String textAnswer) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        logger.debug("🗳️ Голос: poll={}, option={}, fingerprint={}", pollId, optionId, fingerprintId);
+
+        // Закрите голосування: відмова з пам'яті, без жодного запиту до БД
+        if (pollStatusRegistry.isClosed(pollId)) {
+            recordVote(sample, "poll_closed", null);
+            throw new PollClosedException();
+        }
 
         // Перевірка на повторне голосування
-        if (hasAlreadyVoted(pollId, fingerprintId)) {
-            System.out.println("❌ Already voted");
-            return null;
+        VoteStageEvent stage = VoteStageEvent.begin(pollId, "dedupe_check");
+        boolean alreadyVoted = hasAlreadyVoted(pollId, fingerprintId);
+        stage.finish(alreadyVoted ? "duplicate" : "ok");
+        if (alreadyVoted) {
+            logger.debug("❌ Пристрій вже голосував: poll={}", pollId);
+            return recordVote(sample, "duplicate", null);
         }
 
         // Перевірка блокування пристрою
+        stage = VoteStageEvent.begin(pollId, "block_check");
         DeviceFingerprint fingerprint = deviceFingerprintRepository.findById(fingerprintId).orElse(null);
-        if (fingerprint == null || fingerprint.getIsBlocked()) {
-            System.out.println("❌ Device blocked");
-            return null;
+        boolean blocked = fingerprint == null || fingerprint.getIsBlocked();
+        stage.finish(blocked ? "blocked" : "ok");
+        if (blocked) {
+            logger.debug("❌ Пристрій заблоковано або не знайдено: {}", fingerprintId);
+            return recordVote(sample, "blocked", null);
         }
 
         // Отримуємо варіант
+        stage = VoteStageEvent.begin(pollId, "poll_lookup");
         Poll poll = pollRepository.findById(pollId).orElse(null);
+        stage.finish(poll == null ? "poll_not_found" : "ok");
         if (poll == null) {
-            System.out.println("❌ Poll not found");
-            return null;
+            logger.debug("❌ Голосування не знайдено: {}", pollId);
+            return recordVote(sample, "poll_not_found", null);
+        }
+        pollStatusRegistry.record(poll);
+        if (FrozenResultsService.isFinal(poll.getStatus())) {
+            recordVote(sample, "poll_closed", null);
+            throw new PollClosedException();
+        }
+
+        // Варіант іншого голосування дав би зайвий рядок лічильника та завищений totalVotes;
+        // список варіантів - з кешу запитів, без окремого запиту на id
+        PollOption option = null;
+        if (optionId != null) {
+            option = pollOptionRepository.findByPollOrderByOrderNum(poll).stream()
+                    .filter(o -> optionId.equals(o.getId()))
+                    .findFirst()
+                    .orElse(null);
+            if (option == null) {
+                logger.debug("❌ Варіант {} не належить голосуванню {}", optionId, pollId);
+                recordVote(sample, "invalid_option", null);
+                throw new IllegalArgumentException("Option does not belong to poll: " + optionId);
+            }
         }
 
         // Створюємо голос
@@ -93,26 +185,66 @@ public class VoteService {
         vote.setFingerprint(fingerprint);
         vote.setVotedAt(LocalDateTime.now());
 
-        if (optionId != null) {
-            vote.setOption(new PollOption() {{ setId(optionId); }});
+        vote.setOption(option);
+        if (textAnswer != null && !textAnswer.isBlank()) {
+            vote.setTextAnswer(textAnswer.trim());
         }
 
-        Vote savedVote = voteRepository.save(vote);
-        System.out.println("🔥 Vote saved: " + savedVote.getId());
+        stage = VoteStageEvent.begin(pollId, "insert");
+        // Голос і його шардований лічильник - одна транзакція
+        // Статус повторно під FOR SHARE: закриття між перевіркою вище та комітом голосу
+        // інакше заморозило б результати без цього голосу
+        Vote savedVote;
+        try {
+            savedVote = transactionTemplate.execute(status -> {
+                if (FrozenResultsService.isFinal(pollRepository.lockStatusForShare(pollId))) {
+                    throw new PollClosedException();
+                }
+                Vote saved = voteRepository.save(vote);
+                voteCounterService.increment(pollId, optionId);
+                return saved;
+            });
+        } catch (PollClosedException e) {
+            stage.finish("poll_closed");
+            recordVote(sample, "poll_closed", null);
+            throw e;
+        }
+        stage.finish("ok");
+        pollTallyCache.bump(pollId);
+        clusterNotifier.votesChanged(pollId);
+        textTermsService.record(pollId, savedVote.getTextAnswer());
+        logger.debug("✅ Голос збережено: {}", savedVote.getId());
 
         // ⭐ ТРИГГЕР: Трансляція оновлених результатів через WebSocket
         try {
+            stage = VoteStageEvent.begin(pollId, "stats_recompute");
+            Timer.Sample statsSample = Timer.start(meterRegistry);
+            long version = pollTallyCache.version(pollId);
             Map<String, Object> stats = pollService.getPollStatistics(pollId);
-            System.out.println("🔥 Stats obtained: " + stats);
+            statsSample.stop(meterRegistry.timer("polls.votes.stats.recompute"));
+            stage.finish("ok");
 
-            webSocketBroadcaster.broadcastPollResults(pollId, stats);
-            System.out.println("🔥 Broadcast called successfully!");
+            stage = VoteStageEvent.begin(pollId, "broadcast");
+            webSocketBroadcaster.broadcastPollResults(pollId, version, stats);
+            stage.finish("ok");
+            logger.debug("📡 Результати poll={} розіслано", pollId);
         } catch (Exception e) {
-            System.err.println("❌ Помилка при трансляції результатів через WebSocket: " + e.getMessage());
-            e.printStackTrace();
+            stage.finish("error");
+            logger.error("❌ Помилка при трансляції результатів через WebSocket", e);
         }
 
-        return savedVote;
+        return recordVote(sample, "accepted", savedVote);
+    }
+
+    /**
+     * МЕТРИКИ: polls.votes.register{outcome} - повний час реєстрації, включно з трансляцією
+     */
+    private Vote recordVote(Timer.Sample sample, String outcome, Vote result) {
+        sample.stop(Timer.builder("polls.votes.register")
+                .description("Реєстрація голосу")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        return result;
     }
 
     /**
@@ -122,17 +254,36 @@ public class VoteService {
         if (voteRepository.existsById(voteId)) {
             Vote vote = voteRepository.findById(voteId).orElse(null);
             UUID pollId = vote != null ? vote.getPoll().getId() : null;
-
-            voteRepository.deleteById(voteId);
+            boolean frozen = vote != null && FrozenResultsService.isFinal(vote.getPoll().getStatus());
+
+            if (vote != null) {
+                UUID optionId = vote.getOption() != null ? vote.getOption().getId() : null;
+                transactionTemplate.executeWithoutResult(status -> {
+                    voteRepository.deleteById(voteId);
+                    voteCounterService.decrement(pollId, optionId);
+                });
+            } else {
+                voteRepository.deleteById(voteId);
+            }
+            pollTallyCache.bump(pollId);
+            clusterNotifier.votesChanged(pollId);
+            if (frozen) {
+                frozenResultsService.discard(pollId);
+            }
+            // Скетч не вміє віднімати: засів заново при наступному читанні
+            if (vote != null && vote.getTextAnswer() != null) {
+                textTermsService.forget(pollId);
+            }
             logAdminAction(adminId, "DELETE_VOTE", "Vote", voteId, "Deleted vote");
 
             // ⭐ ТРИГГЕР: Трансляція оновлених результатів після видалення
             if (pollId != null) {
                 try {
+                    long version = pollTallyCache.version(pollId);
                     Map<String, Object> stats = pollService.getPollStatistics(pollId);
-                    webSocketBroadcaster.broadcastPollResults(pollId, stats);
+                    webSocketBroadcaster.broadcastPollResults(pollId, version, stats);
                 } catch (Exception e) {
-                    System.err.println("❌ Помилка при трансляції результатів через WebSocket: " + e.getMessage());
+                    logger.error("❌ Помилка при трансляції результатів через WebSocket", e);
                 }
             }
 
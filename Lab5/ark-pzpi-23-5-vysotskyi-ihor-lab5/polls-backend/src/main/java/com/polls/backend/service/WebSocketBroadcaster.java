@@ -13,17 +13,49 @@ public class WebSocketBroadcaster {
     @Autowired
     private PollWebSocketHandler webSocketHandler;
 
+    @Autowired
+    private PollResultsStreamService pollResultsStreamService;
+
     /**
-     * Трансляція оновлених результатів опитування
+     * Трансляція оновлених результатів опитування: WebSocket-тема та SSE-потік
+     * version - PollTallyCache.version, прочитана до обчислення statistics
      */
-    public void broadcastPollResults(UUID pollId, Object statistics) {
+    public void broadcastPollResults(UUID pollId, long version, Map<String, Object> statistics) {
         Map<String, Object> data = new HashMap<>();
         data.put("type", "poll_results_update");
         data.put("topic", "polls/" + pollId + "/results");
         data.put("data", statistics);
+        data.put("version", version);
         data.put("timestamp", System.currentTimeMillis());
 
         webSocketHandler.broadcast("polls/" + pollId + "/results", data);
+        pollResultsStreamService.publish(pollId, version, statistics);
+    }
+
+    /**
+     * Чи дивиться хтось результати голосування на цьому вузлі (WebSocket або SSE)
+     */
+    public boolean hasResultsSubscribers(UUID pollId) {
+        return webSocketHandler.hasSubscribers("polls/" + pollId + "/results")
+                || pollResultsStreamService.hasSubscribers(pollId);
+    }
+
+    /**
+     * Найчастіші слова відповідей OPEN-голосування (TextTermsService, не частіше polls.terms.broadcast-ms)
+     * Першого кадру при підписці немає: поточний стан - GET /api/polls/{id}/terms
+     */
+    public void broadcastPollTerms(UUID pollId, Map<String, Object> terms) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "poll_terms_update");
+        data.put("topic", "polls/" + pollId + "/terms");
+        data.put("data", terms);
+        data.put("timestamp", System.currentTimeMillis());
+
+        webSocketHandler.broadcast("polls/" + pollId + "/terms", data);
+    }
+
+    public boolean hasTermsSubscribers(UUID pollId) {
+        return webSocketHandler.hasSubscribers("polls/" + pollId + "/terms");
     }
 
     /**
@@ -0,0 +1,10 @@
+-- Заморожені результати закритих / архівованих голосувань
+-- Похідні дані: рядок можна видалити, він буде перераховано при наступному читанні
+CREATE TABLE IF NOT EXISTS poll_results_snapshots (
+    poll_id      uuid PRIMARY KEY REFERENCES polls(id) ON DELETE CASCADE,
+    status       varchar(20) NOT NULL,
+    total_votes  bigint      NOT NULL,
+    statistics   text        NOT NULL,
+    metrics      text        NOT NULL,
+    frozen_at    timestamp   NOT NULL DEFAULT now()
+);
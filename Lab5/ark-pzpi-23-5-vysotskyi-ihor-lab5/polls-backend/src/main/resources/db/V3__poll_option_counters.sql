@@ -0,0 +1,17 @@
+-- Шардовані лічильники голосів: N слотів на варіант, голос збільшує випадковий слот
+-- Читання - SUM по слотах; рядок текстових відповідей без варіанту має option_id = нульовий uuid
+-- Похідні дані: перевірка та відновлення - VoteCounterService (COUNT(*) по votes)
+CREATE TABLE IF NOT EXISTS poll_option_counters (
+    poll_id    uuid     NOT NULL REFERENCES polls(id) ON DELETE CASCADE,
+    option_id  uuid     NOT NULL,
+    slot       smallint NOT NULL,
+    votes      bigint   NOT NULL DEFAULT 0,
+    PRIMARY KEY (poll_id, option_id, slot)
+);
+
+-- Початкове заповнення з наявних голосів (лише якщо таблиця ще порожня)
+INSERT INTO poll_option_counters (poll_id, option_id, slot, votes)
+SELECT poll_id, COALESCE(option_id, '00000000-0000-0000-0000-000000000000'::uuid), 0, COUNT(*)
+FROM votes
+WHERE NOT EXISTS (SELECT 1 FROM poll_option_counters)
+GROUP BY poll_id, COALESCE(option_id, '00000000-0000-0000-0000-000000000000'::uuid);
@@ -0,0 +1,30 @@
+-- Вибрані варіанти голосів кіосків: SINGLE - один рядок, MULTIPLE - рядок на кожен варіант
+-- Підрахунок за варіантами - агрегат по індексу замість розбору iot_votes.option_ids (текст через кому)
+CREATE TABLE IF NOT EXISTS iot_vote_options (
+    iot_vote_id  uuid NOT NULL REFERENCES iot_votes(id) ON DELETE CASCADE,
+    option_id    uuid NOT NULL REFERENCES poll_options(id) ON DELETE CASCADE,
+    poll_id      uuid NOT NULL REFERENCES polls(id) ON DELETE CASCADE,
+    PRIMARY KEY (iot_vote_id, option_id)
+);
+
+-- COUNT(*) за (poll_id, option_id) - index-only scan
+CREATE INDEX IF NOT EXISTS idx_iot_vote_options_poll_option ON iot_vote_options (poll_id, option_id);
+
+-- Перенесення наявних голосів: option_id та option_ids ("a,b", "[\"a\", \"b\"]"),
+-- лише id варіантів того самого голосування (сміття в тексті пропускається, а не ламає міграцію)
+-- Голоси REJECTED (явні боти) лишаються в iot_votes для аудиту, але варіантів не отримують
+INSERT INTO iot_vote_options (iot_vote_id, option_id, poll_id)
+SELECT v.id, v.option_id, v.poll_id
+FROM iot_votes v
+JOIN poll_options o ON o.id = v.option_id AND o.poll_id = v.poll_id
+WHERE v.validation_status IS DISTINCT FROM 'REJECTED'
+ON CONFLICT DO NOTHING;
+
+INSERT INTO iot_vote_options (iot_vote_id, option_id, poll_id)
+SELECT DISTINCT v.id, o.id, v.poll_id
+FROM iot_votes v
+CROSS JOIN LATERAL regexp_split_to_table(v.option_ids, '[\s,;\[\]"]+') AS raw(value)
+JOIN poll_options o ON o.poll_id = v.poll_id AND o.id::text = lower(raw.value)
+WHERE v.option_ids IS NOT NULL
+  AND v.validation_status IS DISTINCT FROM 'REJECTED'
+ON CONFLICT DO NOTHING;
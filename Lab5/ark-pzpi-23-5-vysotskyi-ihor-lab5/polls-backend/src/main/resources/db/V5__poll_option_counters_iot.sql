@@ -0,0 +1,12 @@
+-- Вибрані варіанти голосів кіосків у шардованих лічильниках: окрема колонка iot_votes
+-- Статистика: votes + iot_votes - усього за варіант, iot_votes - частка кіосків
+ALTER TABLE poll_option_counters ADD COLUMN IF NOT EXISTS iot_votes bigint NOT NULL DEFAULT 0;
+
+-- Початкове заповнення з iot_vote_options (слот 0), без голосів REJECTED
+INSERT INTO poll_option_counters (poll_id, option_id, slot, votes, iot_votes)
+SELECT s.poll_id, s.option_id, 0, 0, COUNT(*)
+FROM iot_vote_options s
+JOIN iot_votes v ON v.id = s.iot_vote_id
+WHERE v.validation_status IS DISTINCT FROM 'REJECTED'
+GROUP BY s.poll_id, s.option_id
+ON CONFLICT (poll_id, option_id, slot) DO UPDATE SET iot_votes = EXCLUDED.iot_votes;
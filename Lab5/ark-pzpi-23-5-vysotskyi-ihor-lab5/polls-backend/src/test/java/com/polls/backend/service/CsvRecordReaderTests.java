@@ -0,0 +1,112 @@
+package com.polls.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Парсер CSV імпорту (RFC 4180) без Spring-контексту
+ * Помилка тут - тихо зіпсовані голосування після імпорту, а не виняток
+ */
+class CsvRecordReaderTests {
+
+    @Test
+    void quotedFieldKeepsCommas() throws IOException {
+        List<List<String>> records = readAll("title,question\n\"Так, чи ні\",\"a,b,c\"\n");
+
+        assertEquals(List.of(List.of("title", "question"), List.of("Так, чи ні", "a,b,c")), records);
+    }
+
+    @Test
+    void doubledQuotesBecomeOneQuote() throws IOException {
+        List<List<String>> records = readAll("\"Він сказав \"\"так\"\"\",\"\"\"\"\n");
+
+        assertEquals(List.of(List.of("Він сказав \"так\"", "\"")), records);
+    }
+
+    @Test
+    void crlfInsideQuotesIsPartOfField() throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader("\"line1\r\nline2\",x\r\nnext,y\r\n"))) {
+            assertEquals(List.of("line1\r\nline2", "x"), reader.readRecord());
+            assertEquals(1, reader.getRecordStartLine());
+
+            // Перенос у лапках теж рахується: наступний запис - з рядка 3
+            assertEquals(List.of("next", "y"), reader.readRecord());
+            assertEquals(3, reader.getRecordStartLine());
+
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void unterminatedQuoteAtEofFails() throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader("ok,1\n\"never closed,2\n"))) {
+            assertEquals(List.of("ok", "1"), reader.readRecord());
+
+            IOException e = assertThrows(IOException.class, reader::readRecord);
+            assertTrue(e.getMessage().contains("рядка 2"), e.getMessage());
+        }
+    }
+
+    @Test
+    void lastRecordWithoutNewlineAndEmptyFields() throws IOException {
+        List<List<String>> records = readAll("\uFEFFa,,\"\"\n,b");
+
+        assertEquals(List.of(List.of("a", "", ""), List.of("", "b")), records);
+    }
+
+    @Test
+    void escapesSplitAcrossReadsAreParsedTheSame() throws IOException {
+        String csv = "\"x\"\"y\",\"1\r\n2\"\r\nz,w";
+        try (CsvRecordReader reader = new CsvRecordReader(new OneCharReader(csv))) {
+            assertEquals(List.of("x\"y", "1\r\n2"), reader.readRecord());
+            assertEquals(List.of("z", "w"), reader.readRecord());
+            assertNull(reader.readRecord());
+        }
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv))) {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Віддає по одному символу: кожен next() / peek() перетинає межу буфера
+     */
+    private static final class OneCharReader extends Reader {
+        private final String text;
+        private int position;
+
+        OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.polls.backend.sql;
+
+import com.polls.backend.entity.DeviceFingerprint;
+import com.polls.backend.entity.Poll;
+import com.polls.backend.entity.PollOption;
+import com.polls.backend.entity.PollOptionCounter;
+import com.polls.backend.entity.Vote;
+import com.polls.backend.repository.DeviceFingerprintRepository;
+import com.polls.backend.repository.PollOptionCounterRepository;
+import com.polls.backend.repository.PollOptionRepository;
+import com.polls.backend.repository.PollRepository;
+import com.polls.backend.repository.VoteRepository;
+import com.polls.backend.service.PollStatusRegistry;
+import com.polls.backend.service.PollTallyCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-запитів на endpoint: тест падає, якщо шлях знову вантажить голоси
+ * по одному (N+1 через ліниві option / fingerprint / poll.getOptions())
+ *
+ * Вбудована H2 у режимі PostgreSQL, схема з сутностей. Голосів значно більше за
+ * бюджет, тому будь-який запит "на кожен голос" його перевищить. Кеші (ETag,
+ * статуси, другий рівень) скидаються перед кожним виміром - рахується холодний шлях.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-budget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE DOMAIN IF NOT EXISTS INET AS VARCHAR(64)",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.polls.backend.sql.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+class SqlStatementBudgetTests {
+
+    private static final int OPTIONS = 4;
+    private static final int VOTES = 60;
+    private static final int SHARDS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PollRepository pollRepository;
+
+    @Autowired
+    private PollOptionRepository pollOptionRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private DeviceFingerprintRepository deviceFingerprintRepository;
+
+    @Autowired
+    private PollOptionCounterRepository pollOptionCounterRepository;
+
+    @Autowired
+    private PollTallyCache pollTallyCache;
+
+    @Autowired
+    private PollStatusRegistry pollStatusRegistry;
+
+    private UUID pollId;
+
+    @BeforeEach
+    void seed() {
+        pollOptionCounterRepository.deleteAll();
+        voteRepository.deleteAll();
+        pollOptionRepository.deleteAll();
+        pollRepository.deleteAll();
+        deviceFingerprintRepository.deleteAll();
+
+        Poll poll = new Poll();
+        poll.setTitle("Бюджет SQL");
+        poll.setQuestion("Скільки запитів?");
+        poll.setType("SINGLE");
+        poll.setOrganizerFingerprint(fingerprint("organizer"));
+        poll = pollRepository.save(poll);
+        pollId = poll.getId();
+
+        List<PollOption> options = new ArrayList<>();
+        for (int i = 0; i < OPTIONS; i++) {
+            PollOption option = new PollOption();
+            option.setPoll(poll);
+            option.setText("Варіант " + i);
+            option.setOrderNum(i);
+            options.add(pollOptionRepository.save(option));
+        }
+
+        List<Vote> votes = new ArrayList<>();
+        for (int i = 0; i < VOTES; i++) {
+            Vote vote = new Vote();
+            vote.setPoll(poll);
+            vote.setOption(options.get(i % OPTIONS));
+            vote.setFingerprint(fingerprint("voter-" + i));
+            votes.add(vote);
+        }
+        voteRepository.saveAll(votes);
+
+        // Лічильники, як їх лишає VoteService: голос i - у слот (i / OPTIONS) % SHARDS свого варіанту
+        long[][] slots = new long[OPTIONS][SHARDS];
+        for (int i = 0; i < VOTES; i++) {
+            slots[i % OPTIONS][(i / OPTIONS) % SHARDS]++;
+        }
+        List<PollOptionCounter> counters = new ArrayList<>();
+        for (int i = 0; i < OPTIONS; i++) {
+            for (int slot = 0; slot < SHARDS; slot++) {
+                PollOptionCounter counter = new PollOptionCounter();
+                counter.setPollId(pollId);
+                counter.setOptionId(options.get(i).getId());
+                counter.setSlot((short) slot);
+                counter.setVotes(slots[i][slot]);
+                counters.add(counter);
+            }
+        }
+        pollOptionCounterRepository.saveAll(counters);
+    }
+
+    @Test
+    void statisticsStaysWithinBudget() throws Exception {
+        assertBudget("/api/polls/" + pollId + "/statistics", 4);
+    }
+
+    @Test
+    void statisticsSumsCounterSlots() throws Exception {
+        mockMvc.perform(get("/api/polls/" + pollId + "/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalVotes").value(VOTES))
+                .andExpect(jsonPath("$.options[0].votes").value(VOTES / OPTIONS));
+    }
+
+    @Test
+    void metricsStaysWithinBudget() throws Exception {
+        assertBudget("/api/polls/" + pollId + "/metrics", 3);
+    }
+
+    @Test
+    void pollCsvStaysWithinBudget() throws Exception {
+        assertBudget("/api/polls/" + pollId + "/export/csv", 4);
+    }
+
+    @Test
+    void voteDetailsCsvStaysWithinBudget() throws Exception {
+        assertBudget("/api/polls/" + pollId + "/votes/export/csv", 3);
+    }
+
+    @Test
+    void pdfStaysWithinBudget() throws Exception {
+        assertBudget("/api/polls/" + pollId + "/export/pdf", 4);
+    }
+
+    @Test
+    void trendingStaysWithinBudget() throws Exception {
+        assertBudget("/api/polls/trending", 2);
+    }
+
+    private void assertBudget(String path, int maxStatements) throws Exception {
+        pollTallyCache.invalidateAll();
+        pollStatusRegistry.evictAll();
+        SqlStatementCounter.reset();
+
+        mockMvc.perform(get(path)).andExpect(status().isOk());
+
+        int count = SqlStatementCounter.count();
+        assertTrue(count <= maxStatements, () -> path + ": " + count + " SQL-запитів, бюджет " + maxStatements
+                + "\n" + String.join("\n", SqlStatementCounter.statements()));
+    }
+
+    private DeviceFingerprint fingerprint(String hash) {
+        DeviceFingerprint fingerprint = new DeviceFingerprint();
+        fingerprint.setFingerprintHash(hash);
+        return deviceFingerprintRepository.save(fingerprint);
+    }
+}
@@ -0,0 +1,33 @@
+package com.polls.backend.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Лічильник SQL-запитів Hibernate (hibernate.session_factory.statement_inspector)
+ * Записує текст кожного запиту, щоб повідомлення про перевищення показувало, які саме
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        statements.clear();
+    }
+
+    public static int count() {
+        return statements.size();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(statements);
+    }
+}